@@ -1,31 +1,23 @@
 package characters;
 
-import java.awt.Graphics;
 import java.awt.Image;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
-import java.security.SecureRandom;
-import java.util.List;
 
-import javax.swing.Timer;
-
-import data.QuestionManager;
-import data.InfoManager;
+import data.EnemyTypes;
+import data.SpriteBatch;
+import data.ContentSampler;
+import data.RandomSource;
 import shotbox.*;
 
 /**
- * Abstract base class representing an enemy character ("KnowledgeKeeper")
- * in the game. These entities can move, shoot questions or info, and have
- * associated visual representations (avatars).
- * 
- * Subclasses include:
- * - SectionLeader
- * - TeachingAssistants
- * - Professors
- * 
- * They differ in scoring and damage logic.
+ * Represents an enemy character ("KnowledgeKeeper") in the game. These entities
+ * can move, shoot questions or info, and have associated visual representations (avatars).
+ *
+ * All per-type parameters (speed, info and chase chances, score, damage and content level)
+ * come from the {@link EnemyTypes} table. Each enemy only stores its type id, so every
+ * parameter lookup is a single array access and every archetype, such as
+ * SectionLeader, TeachingAssistants or Professors, is an instance of this class.
  */
-public abstract class KnowledgeKeeper implements Shootable {
+public class KnowledgeKeeper implements Shootable {
 
     /** X position on screen */
     protected int x;
@@ -33,55 +25,117 @@ public abstract class KnowledgeKeeper implements Shootable {
     /** Y position on screen */
     protected int y;
 
+    /** Archetype of this enemy in the {@link EnemyTypes} table */
+    protected final int typeId;
+
     /** Movement speed in pixels per update */
     protected int speed;
 
+    /** Size every enemy avatar is scaled to */
+    public static final int AVATAR_WIDTH = 55;
+    public static final int AVATAR_HEIGHT = 70;
+
+    /** Sprite batch layer of enemies: below the player and the shots */
+    public static final int LAYER = 0;
+
     /** Width and height of the avatar image */
-    protected final int width = 55;
-    protected final int height = 70;
+    protected final int width = AVATAR_WIDTH;
+    protected final int height = AVATAR_HEIGHT;
 
     /** Avatar image representing this character */
     protected Image avatar;
 
-    /** Random generator for movement and timing */
-    protected static final SecureRandom RANDOM = new SecureRandom();
+    /** This enemy's own random stream for movement, timing and shot decisions */
+    protected final RandomSource random;
+
+    /** Session samplers for questions and information */
+    protected ContentSampler questionSampler;
+    protected ContentSampler infoSampler;
 
-    /** Managers for questions and information generation */
-    protected QuestionManager questionManager;
-    protected InfoManager ınfoManager;
+    /** Shot manager this enemy fires into, or null while it is not shooting */
+    protected ShotManager shotTarget;
 
-    /** Shooting timer for periodic question/info launching */
-    protected Timer shootTimer;
+    /** Milliseconds left until the next shot */
+    protected int fireCountdown;
+
+    /** Minimum delay and maximum random extra delay between two shots in milliseconds */
+    protected int minFireDelay = 2000;
+    protected int fireDelayJitter = 2000;
 
     /** Direction of horizontal movement */
-    protected boolean movingRight = RANDOM.nextBoolean();
+    protected boolean movingRight;
+
+    /** Indicates whether the enemy is currently tracking the player's horizontal position. */
+    protected boolean chanceToPlayer;
 
     /**
      * Constructs a new KnowledgeKeeper.
      *
-     * @param x     The initial x position
-     * @param y     The initial y position
-     * @param avatar Avatar image
-     * @param speed Movement speed
-     * @param qm    Reference to question manager
-     * @param im    Reference to info manager
-     */
-    public KnowledgeKeeper(int x, int y, Image avatar, int speed, QuestionManager qm, InfoManager im) {
+     * @param x         The initial x position
+     * @param y         The initial y position
+     * @param avatar    Avatar image
+     * @param typeId    Archetype id in the {@link EnemyTypes} table
+     * @param questions Session sampler for questions
+     * @param infos     Session sampler for information
+     * @param random    Random stream owned by this enemy
+     */
+    public KnowledgeKeeper(int x, int y, Image avatar, int typeId, ContentSampler questions, ContentSampler infos, RandomSource random) {
         this.x = x;
         this.y = y;
         this.avatar = avatar;
-        this.speed = speed;
-        this.questionManager = qm;
-        this.ınfoManager = im;
+        this.typeId = typeId;
+        this.speed = EnemyTypes.getSpeed(typeId);
+        this.questionSampler = questions;
+        this.infoSampler = infos;
+        this.random = random;
+        this.movingRight = random.nextBoolean();
     }
 
     /**
-     * Moves the enemy horizontally across the panel, bouncing off edges.
+     * @return The archetype id of this enemy in the {@link EnemyTypes} table.
+     */
+    public int getTypeId() {
+        return typeId;
+    }
+
+    /**
+     * Re-rolls the movement decision: with the archetype's chase chance, the enemy
+     * follows the player's horizontal position until the next decision.
+     *
+     * Called by the {@code AIScheduler} once per decision interval of the archetype.
+     */
+    public void decideMovement() {
+        chanceToPlayer = random.nextDouble() < EnemyTypes.getChaseChance(typeId);
+    }
+
+    /**
+     * Moves the enemy either horizontally or toward the player based on its last decision.
+     *
+     * Archetypes with a chase chance of 0 are never scheduled for decisions and therefore
+     * always bounce off the edges of the panel.
      *
-     * @param player     Reference to player (unused in basic movement)
+     * @param player     Reference to player, used to obtain the player's x-position
      * @param panelWidth Width of the game panel
      */
     public void move(Player player, int panelWidth) {
+        if (chanceToPlayer) {
+            if (player.getPlayerX() > this.x) {
+                x += speed;
+            } else if (player.getPlayerX() < this.x) {
+                x -= speed;
+            }
+            return;
+        }
+
+        bounce(panelWidth);
+    }
+
+    /**
+     * Moves the enemy horizontally across the panel, bouncing off edges.
+     *
+     * @param panelWidth Width of the game panel
+     */
+    protected void bounce(int panelWidth) {
         if (movingRight) {
             x += speed;
             if (x + width >= panelWidth) {
@@ -98,81 +152,137 @@ public abstract class KnowledgeKeeper implements Shootable {
     }
 
     /**
-     * Starts the shooting timer which periodically creates new ShotBoxes
-     * and adds them to the given activeShots list.
+     * Starts periodic shooting: from now on {@link #updateShooting} creates new ShotBoxes
+     * and spawns them into the given shot manager.
      *
-     * @param activeShots List to which generated ShotBoxes will be added
-     */
-    public void startShooting(List<ShotBox> activeShots) {
-        int delay = 2000 + RANDOM.nextInt(2000);
-
-        shootTimer = new Timer(delay, new ActionListener() {
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                ShotBox shot = shoot();
-                if (shot != null) {
-                    activeShots.add(shot);
-                }
-                shootTimer.setDelay(2000 + RANDOM.nextInt(2000));
-            }
-        });
+     * @param activeShots Manager to which generated ShotBoxes will be added
+     */
+    public void startShooting(ShotManager activeShots) {
+        shotTarget = activeShots;
+        fireCountdown = nextFireDelay();
+    }
 
-        shootTimer.setRepeats(true);
-        shootTimer.start();
+    /**
+     * Advances the shooting clock of this enemy and fires a shot when its delay has passed.
+     * Called once per game loop tick, which replaces one Swing timer per enemy.
+     *
+     * @param elapsedMillis Milliseconds elapsed since the previous call
+     */
+    public void updateShooting(int elapsedMillis) {
+        if (shotTarget == null) {
+            return;
+        }
+
+        fireCountdown -= elapsedMillis;
+        if (fireCountdown <= 0) {
+            ShotBox shot = shoot();
+            if (shot != null) {
+                shotTarget.spawn(shot);
+            }
+            fireCountdown = nextFireDelay();
+        }
     }
 
     /**
-     * Stops the shooting timer for this enemy.
+     * Stops shooting for this enemy.
      */
     public void stopShooting() {
-        if (shootTimer != null) {
-            shootTimer.stop();
+        shotTarget = null;
+    }
+
+    /**
+     * Changes how often this enemy shoots. Used by the endless mode to raise the fire rate.
+     *
+     * @param minDelay Minimum delay between two shots in milliseconds
+     * @param jitter   Maximum random extra delay in milliseconds
+     */
+    public void setFireDelay(int minDelay, int jitter) {
+        this.minFireDelay = minDelay;
+        this.fireDelayJitter = jitter;
+    }
+
+    /**
+     * @return A random delay until the next shot in milliseconds
+     */
+    private int nextFireDelay() {
+        return minFireDelay + (fireDelayJitter > 0 ? random.nextInt(fireDelayJitter) : 0);
+    }
+
+    /**
+     * Fires a shot using the archetype's info chance and content level.
+     *
+     * The shot is an info box with the archetype's info chance and a question
+     * box otherwise. It falls with the archetype's speed. The shot only carries
+     * the content level; the text is chosen when the shot is shown.
+     *
+     * @return A {@link ShotBox} carrying either an info or a question.
+     */
+    @Override
+    public ShotBox shoot() {
+        int level = EnemyTypes.getContentLevel(typeId);
+
+        if (random.nextDouble() < EnemyTypes.getInfoChance(typeId)) {
+            return new ShotBox(this.x, this.y, speed, level, "info", this);
+        } else {
+            return new ShotBox(this.x, this.y, speed, level, "question", this);
         }
     }
 
+    /**
+     * Draws the entry a shot of this enemy resolves to.
+     *
+     * @param type  The type of the shot ("info" or "question").
+     * @param level The content level of the shot.
+     * @return The index of the entry within its level, or -1 if the level has no entries.
+     */
+    public int drawContentIndex(String type, int level) {
+        return samplerOf(type).nextIndex(level);
+    }
+
+    /**
+     * Returns the text of an entry drawn with {@link #drawContentIndex}.
+     *
+     * @param type  The type of the shot ("info" or "question").
+     * @param level The content level of the shot.
+     * @param index The index of the entry within its level.
+     * @return The text of the entry.
+     */
+    public String getContentText(String type, int level, int index) {
+        return samplerOf(type).getText(level, index);
+    }
+
+    /**
+     * @return The sampler that deals out content of the given shot type.
+     */
+    private ContentSampler samplerOf(String type) {
+        return type.equals("info") ? infoSampler : questionSampler;
+    }
+
     /**
      * Returns the score the player should gain when collecting info
      * from this enemy type.
      *
-     * @return score value (depends on subclass)
+     * @return score value of the archetype
      */
     public int getInfoScore() {
-        if (this instanceof SectionLeader) {
-        	return 10;
-        }
-        if (this instanceof TeachingAssistants) {
-        	return 20;
-        }
-        if (this instanceof Professors) {
-        	return 30;
-        }
-        return 10;
+        return EnemyTypes.getInfoScore(typeId);
     }
 
     /**
      * Returns the damage the player receives when hit by this enemy’s question.
      *
-     * @return damage value (depends on subclass)
+     * @return damage value of the archetype
      */
     public int getQuestionDamage() {
-        if (this instanceof SectionLeader) {
-        	return 5;
-        }
-        if (this instanceof TeachingAssistants) {
-        	return 10;
-        }
-        if (this instanceof Professors) {
-        	return 20;
-        }
-        return 10;
+        return EnemyTypes.getQuestionDamage(typeId);
     }
 
     /**
      * Renders the enemy on the screen.
      *
-     * @param g The Graphics context to draw on
+     * @param batch The sprite batch of the frame
      */
-    public void draw(Graphics g) {
-        g.drawImage(avatar, x, y, null);
+    public void draw(SpriteBatch batch) {
+        batch.draw(avatar, x, y, LAYER);
     }
 }
@@ -1,14 +1,13 @@
 package characters;
 
-import java.awt.Graphics;
 import java.awt.Image;
 import java.awt.Rectangle;
-import java.io.File;
 import java.io.IOException;
-import javax.imageio.ImageIO;
 import javax.swing.JOptionPane;
 
 import data.Logger;
+import data.SpriteBatch;
+import data.SpriteCache;
 
 /**
  * Represents the player character in the game.
@@ -19,11 +18,18 @@ import data.Logger;
  */
 public class Player {
 
+    /** Size the player avatar is scaled to */
+    public static final int AVATAR_WIDTH = 40;
+    public static final int AVATAR_HEIGHT = 54;
+
+    /** Sprite batch layer of the player: above the enemies, below the shots */
+    public static final int LAYER = 1;
+
     private int x;
     private int y;
     private Image avatar;
-    private final int width = 40;
-    private final int height = 54;
+    private final int width = AVATAR_WIDTH;
+    private final int height = AVATAR_HEIGHT;
     private int health = 100;
     private int score = 0;
 
@@ -50,6 +56,33 @@ public class Player {
         return x;
     }
 
+    /**
+     * Returns the current y-coordinate of the player.
+     *
+     * @return the y-coordinate.
+     */
+    public int getPlayerY() {
+        return y;
+    }
+
+    /**
+     * Returns the width of the player, used for allocation-free collision checks.
+     *
+     * @return the width in pixels.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the player, used for allocation-free collision checks.
+     *
+     * @return the height in pixels.
+     */
+    public int getHeight() {
+        return height;
+    }
+
     /**
      * Returns the player's current health value.
      *
@@ -125,21 +158,21 @@ public class Player {
     /**
      * Draws the player's avatar at its current location.
      *
-     * @param g the {@link Graphics} object used for drawing.
+     * @param batch the {@link SpriteBatch} of the frame.
      */
-    public void draw(Graphics g) {
-        g.drawImage(avatar, x, y, null);
+    public void draw(SpriteBatch batch) {
+        batch.draw(avatar, x, y, LAYER);
     }
 
 
     /**
-     * Loads the avatar image from the provided file path and scales it to the player size.
+     * Loads the avatar sprite from the provided file path, scaled to the player size.
      *
      * @param avatarPath the file path to the image.
      */
     private void loadImage(String avatarPath) {
         try {
-            this.avatar = ImageIO.read(new File(avatarPath)).getScaledInstance(width, height, Image.SCALE_SMOOTH);
+            this.avatar = SpriteCache.get(avatarPath, width, height);
         } 
         catch (IOException e) {
         	Logger.log("Player avatar cannot load: " + e.getMessage());
@@ -9,8 +9,7 @@ import shotbox.ShotBox;
  * of the {@code shoot()} method, which returns a {@link ShotBox}
  * representing the projectile or knowledge shot by the entity.
  *
- * Used in enemy classes such as {@code SectionLeader}, {@code TeachingAssistants},
- * and {@code Professors}.
+ * Implemented by {@link KnowledgeKeeper}, the class of every enemy archetype.
  */
 public interface Shootable {
 
@@ -0,0 +1,351 @@
+package data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The {@code ContentIndex} class is an immutable, compact index of level-tagged texts such as questions and infos.
+ *
+ * A content file has one entry per line in the form {@code [Level N] text}, where N is a level from 1 to
+ * {@link #MAX_LEVEL}. An entry may carry an optional sampling weight, {@code [Level N, weight W] text}, to make it
+ * come up W times as often as an entry without a weight. Lines that do not follow this format, or whose level or
+ * weight is out of range, are ignored. The file is memory-mapped
+ * and parsed in a single pass.
+ *
+ * All texts are stored back to back as UTF-8 bytes in one contiguous arena, and an offset table per level points
+ * into it. A text is only decoded into a {@code String} when {@link #getText} is called, so the heap holds a few
+ * bytes per character instead of one object per entry.
+ *
+ * If a precompiled {@link ContentPack} of the file exists and is up to date, {@link #load} maps the pack instead
+ * of parsing the text, and the index reads its tables and texts directly from the mapped pack.
+ */
+public class ContentIndex {
+
+    private static final byte[] LEVEL_PREFIX = "[Level ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] WEIGHT_PREFIX = ", weight ".getBytes(StandardCharsets.US_ASCII);
+
+    /** Highest accepted level number; the level table has one element per level up to the highest one used */
+    public static final int MAX_LEVEL = 1000;
+
+    /** Highest accepted sampling weight of a single entry */
+    public static final int MAX_WEIGHT = 1000;
+
+    /** Longer numbers are read as this value, which is above every accepted level and weight */
+    private static final int NUMBER_LIMIT = 1_000_000;
+
+    /** UTF-8 bytes of all texts */
+    private final ByteBuffer arena;
+
+    /** Arena offset and byte length of every entry, grouped by level */
+    private final IntBuffer entryOffsets;
+    private final IntBuffer entryLengths;
+
+    /** Sampling weight of every entry, 1 unless the file says otherwise */
+    private final IntBuffer entryWeights;
+
+    /** First entry of each level; level N spans levelStarts[N] to levelStarts[N + 1]. Level 0 is always empty. */
+    private final IntBuffer levelStarts;
+
+    /**
+     * Constructs an index from already built tables.
+     *
+     * @param arena        the UTF-8 bytes of all texts
+     * @param entryOffsets the arena offset of every entry, grouped by level
+     * @param entryLengths the byte length of every entry
+     * @param entryWeights the sampling weight of every entry
+     * @param levelStarts  the first entry of each level, with one extra element holding the entry count
+     */
+    ContentIndex(ByteBuffer arena, int[] entryOffsets, int[] entryLengths, int[] entryWeights, int[] levelStarts) {
+        this(arena, IntBuffer.wrap(entryOffsets), IntBuffer.wrap(entryLengths), IntBuffer.wrap(entryWeights),
+                IntBuffer.wrap(levelStarts));
+    }
+
+    /**
+     * Constructs an index from tables that live in buffers, such as the sections of a mapped {@link ContentPack}.
+     * Every buffer is read with absolute indices from 0 to its limit.
+     *
+     * @param arena        the UTF-8 bytes of all texts
+     * @param entryOffsets the arena offset of every entry, grouped by level
+     * @param entryLengths the byte length of every entry
+     * @param entryWeights the sampling weight of every entry
+     * @param levelStarts  the first entry of each level, with one extra element holding the entry count
+     */
+    ContentIndex(ByteBuffer arena, IntBuffer entryOffsets, IntBuffer entryLengths, IntBuffer entryWeights, IntBuffer levelStarts) {
+        this.arena = arena;
+        this.entryOffsets = entryOffsets;
+        this.entryLengths = entryLengths;
+        this.entryWeights = entryWeights;
+        this.levelStarts = levelStarts;
+    }
+
+    /**
+     * Loads and indexes the given content file, from its precompiled pack if that is up to date.
+     *
+     * @param filePath path of the content file
+     * @return the index
+     * @throws IOException if the file cannot be read
+     */
+    public static ContentIndex load(String filePath) throws IOException {
+        ContentIndex packed = ContentPack.loadIfCurrent(filePath);
+        if (packed != null) {
+            return packed;
+        }
+        return loadText(filePath);
+    }
+
+    /**
+     * Loads and indexes the given content file from its text, ignoring any pack.
+     *
+     * @param filePath path of the content file
+     * @return the index
+     * @throws IOException if the file cannot be read
+     */
+    public static ContentIndex loadText(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return parse(file);
+        }
+    }
+
+    /**
+     * Parses content in the {@code [Level N] text} format in a single pass.
+     *
+     * @param file the content bytes, read from position 0 to the limit
+     * @return the index
+     */
+    static ContentIndex parse(ByteBuffer file) {
+        int size = file.limit();
+        byte[] arena = new byte[Math.max(16, size)];
+        int arenaSize = 0;
+
+        // Entries in file order; grouped by level after the pass.
+        int entryCount = 0;
+        int[] levels = new int[64];
+        int[] offsets = new int[64];
+        int[] lengths = new int[64];
+        int[] weights = new int[64];
+        int maxLevel = 0;
+
+        int lineStart = 0;
+        while (lineStart < size) {
+            int lineEnd = lineStart;
+            while (lineEnd < size && file.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+
+            int level = 0;
+            int weight = 1;
+            int cursor = lineStart;
+            if (startsWith(file, cursor, lineEnd, LEVEL_PREFIX)) {
+                cursor += LEVEL_PREFIX.length;
+                int digitsStart = cursor;
+                cursor = skipDigits(file, cursor, lineEnd);
+                level = parseDigits(file, digitsStart, cursor);
+                if (level > MAX_LEVEL) {
+                    level = 0;
+                }
+
+                if (level > 0 && startsWith(file, cursor, lineEnd, WEIGHT_PREFIX)) {
+                    cursor += WEIGHT_PREFIX.length;
+                    int weightStart = cursor;
+                    cursor = skipDigits(file, cursor, lineEnd);
+                    weight = parseDigits(file, weightStart, cursor);
+                    if (weight < 1 || weight > MAX_WEIGHT) {
+                        level = 0;
+                    }
+                }
+
+                if (cursor >= lineEnd || file.get(cursor) != ']') {
+                    level = 0;
+                }
+                cursor++;
+            }
+
+            if (level > 0) {
+                int textStart = cursor;
+                int textEnd = lineEnd;
+                while (textStart < textEnd && (file.get(textStart) & 0xFF) <= ' ') {
+                    textStart++;
+                }
+                while (textEnd > textStart && (file.get(textEnd - 1) & 0xFF) <= ' ') {
+                    textEnd--;
+                }
+
+                if (entryCount == levels.length) {
+                    levels = Arrays.copyOf(levels, entryCount * 2);
+                    offsets = Arrays.copyOf(offsets, entryCount * 2);
+                    lengths = Arrays.copyOf(lengths, entryCount * 2);
+                    weights = Arrays.copyOf(weights, entryCount * 2);
+                }
+                int length = textEnd - textStart;
+                file.get(textStart, arena, arenaSize, length);
+                levels[entryCount] = level;
+                offsets[entryCount] = arenaSize;
+                lengths[entryCount] = length;
+                weights[entryCount] = weight;
+                entryCount++;
+                arenaSize += length;
+                maxLevel = Math.max(maxLevel, level);
+            }
+
+            lineStart = lineEnd + 1;
+        }
+
+        // Counting sort of the entries by level keeps the file order within each level.
+        int[] levelStarts = new int[maxLevel + 2];
+        for (int i = 0; i < entryCount; i++) {
+            levelStarts[levels[i] + 1]++;
+        }
+        for (int level = 1; level < levelStarts.length; level++) {
+            levelStarts[level] += levelStarts[level - 1];
+        }
+        int[] next = Arrays.copyOf(levelStarts, levelStarts.length);
+        int[] entryOffsets = new int[entryCount];
+        int[] entryLengths = new int[entryCount];
+        int[] entryWeights = new int[entryCount];
+        for (int i = 0; i < entryCount; i++) {
+            int slot = next[levels[i]]++;
+            entryOffsets[slot] = offsets[i];
+            entryLengths[slot] = lengths[i];
+            entryWeights[slot] = weights[i];
+        }
+
+        return new ContentIndex(ByteBuffer.wrap(Arrays.copyOf(arena, arenaSize)), entryOffsets, entryLengths, entryWeights, levelStarts);
+    }
+
+    /**
+     * @return the highest level that has entries, or 0 if there are none
+     */
+    public int getLevelCount() {
+        return levelStarts.limit() - 2;
+    }
+
+    /**
+     * @param level the level
+     * @return the number of entries of the level, 0 for levels that do not exist
+     */
+    public int getEntryCount(int level) {
+        if (level < 1 || level > getLevelCount()) {
+            return 0;
+        }
+        return levelStarts.get(level + 1) - levelStarts.get(level);
+    }
+
+    /**
+     * @return the number of entries over all levels
+     */
+    public int getTotalEntryCount() {
+        return entryOffsets.limit();
+    }
+
+    /**
+     * @param level the level of the entry
+     * @param index the index of the entry within its level
+     * @return the sampling weight of the entry, at least 1
+     */
+    public int getWeight(int level, int index) {
+        return entryWeights.get(levelStarts.get(level) + index);
+    }
+
+    /**
+     * Decodes one entry.
+     *
+     * @param level the level of the entry
+     * @param index the index of the entry within its level, between 0 and {@link #getEntryCount}
+     * @return the text of the entry
+     */
+    public String getText(int level, int index) {
+        int entry = levelStarts.get(level) + index;
+        int offset = entryOffsets.get(entry);
+        int length = entryLengths.get(entry);
+
+        if (arena.hasArray()) {
+            return new String(arena.array(), arena.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        arena.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the UTF-8 bytes of all texts, for writing a pack
+     */
+    ByteBuffer getArena() {
+        return arena;
+    }
+
+    /**
+     * @return the arena offset of every entry, for writing a pack
+     */
+    IntBuffer getEntryOffsets() {
+        return entryOffsets;
+    }
+
+    /**
+     * @return the byte length of every entry, for writing a pack
+     */
+    IntBuffer getEntryLengths() {
+        return entryLengths;
+    }
+
+    /**
+     * @return the sampling weight of every entry, for writing a pack
+     */
+    IntBuffer getEntryWeights() {
+        return entryWeights;
+    }
+
+    /**
+     * @return the first entry of each level, for writing a pack
+     */
+    IntBuffer getLevelStarts() {
+        return levelStarts;
+    }
+
+    /**
+     * @return the position after the digits starting at {@code start}
+     */
+    private static int skipDigits(ByteBuffer file, int start, int end) {
+        int cursor = start;
+        while (cursor < end && file.get(cursor) >= '0' && file.get(cursor) <= '9') {
+            cursor++;
+        }
+        return cursor;
+    }
+
+    /**
+     * @return the value of the decimal digits between start and end, 0 if there are none,
+     *         or {@link #NUMBER_LIMIT} if the value is larger
+     */
+    private static int parseDigits(ByteBuffer file, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + (file.get(i) - '0');
+            if (value > NUMBER_LIMIT) {
+                return NUMBER_LIMIT;
+            }
+        }
+        return value;
+    }
+
+    private static boolean startsWith(ByteBuffer file, int start, int end, byte[] prefix) {
+        if (end - start < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (file.get(start + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,215 @@
+package data;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The {@code ContentLibrary} class manages the question and info banks of all languages.
+ *
+ * The default language uses {@code data/questions.txt} and {@code data/info.txt}. Every other language has its own
+ * folder with the same files, for example {@code data/tr/questions.txt}. A language folder may omit a file; the
+ * default language's file is used for it then.
+ *
+ * Only the active language is bound to the question and info {@link ContentStore}s. Banks of other languages are
+ * loaded on demand and kept in a small least-recently-used cache, so switching back and forth is instant while the
+ * memory held stays bounded no matter how many languages are installed.
+ *
+ * Switching languages loads the new banks on a background thread and then swaps both of them into the stores at once,
+ * so no reader ever sees the questions of one language with the infos of another. The game loop never waits: running games keep drawing from the previous language until the swap and pick up the new one at their
+ * next draw. If the new banks cannot be loaded, the previous language stays active.
+ */
+public class ContentLibrary {
+
+    /** The language of the files directly in {@code data/} */
+    public static final String DEFAULT_LOCALE = "en";
+
+    /** Number of languages whose banks are kept in memory, including the active one */
+    public static final int DEFAULT_CACHED_LOCALES = 2;
+
+    private static final String DATA_FOLDER = "data";
+    private static final String QUESTION_FILE = new File(QuestionManager.FILE_PATH).getName();
+    private static final String INFO_FILE = new File(InfoManager.FILE_PATH).getName();
+
+    private final ContentStore questions;
+    private final ContentStore infos;
+    private final Map<String, LocaleBank> cache;
+    private final ExecutorService loader;
+
+    private volatile String activeLocale = DEFAULT_LOCALE;
+
+    /**
+     * Loaded banks of one language, with the modification times of their files at load time.
+     */
+    private static class LocaleBank {
+        private ContentIndex questions;
+        private ContentIndex infos;
+        private long questionsModified;
+        private long infosModified;
+    }
+
+    /**
+     * Constructs a library around the stores of the default language, which must already be loaded and not yet
+     * be used by other threads. The stores are {@link ContentStore#link linked}, so a language switch replaces the
+     * questions and infos in one step.
+     *
+     * @param questions      the question store used by the game
+     * @param infos          the info store used by the game
+     * @param cachedLocales  the number of languages kept in memory, at least 1
+     */
+    public ContentLibrary(ContentStore questions, ContentStore infos, final int cachedLocales) {
+        this.questions = questions;
+        this.infos = infos;
+        ContentStore.link(questions, infos);
+        this.cache = new LinkedHashMap<String, LocaleBank>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LocaleBank> eldest) {
+                return size() > Math.max(1, cachedLocales);
+            }
+        };
+        this.loader = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "content-library");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        LocaleBank bank = new LocaleBank();
+        bank.questions = questions.get();
+        bank.infos = infos.get();
+        bank.questionsModified = new File(questions.getFilePath()).lastModified();
+        bank.infosModified = new File(infos.getFilePath()).lastModified();
+        synchronized (cache) {
+            cache.put(DEFAULT_LOCALE, bank);
+        }
+    }
+
+    /**
+     * Lists the installed languages: the default one and every folder in {@code data/} that contains a
+     * question or info file.
+     *
+     * @return the language codes, the default language first and the others in alphabetical order
+     */
+    public static List<String> findLocales() {
+        List<String> locales = new ArrayList<>();
+        locales.add(DEFAULT_LOCALE);
+
+        File[] folders = new File(DATA_FOLDER).listFiles();
+        if (folders != null) {
+            Arrays.sort(folders);
+            for (File folder : folders) {
+                if (folder.isDirectory() && !folder.getName().equals(DEFAULT_LOCALE)
+                        && (new File(folder, QUESTION_FILE).isFile() || new File(folder, INFO_FILE).isFile())) {
+                    locales.add(folder.getName());
+                }
+            }
+        }
+        return locales;
+    }
+
+    /**
+     * @param locale the language code
+     * @return the question file of the language
+     */
+    public static String questionPathOf(String locale) {
+        return pathOf(locale, QUESTION_FILE, QuestionManager.FILE_PATH);
+    }
+
+    /**
+     * @param locale the language code
+     * @return the info file of the language
+     */
+    public static String infoPathOf(String locale) {
+        return pathOf(locale, INFO_FILE, InfoManager.FILE_PATH);
+    }
+
+    /**
+     * @param locale the language code
+     * @return the folder of the language's files
+     */
+    public static String folderOf(String locale) {
+        return locale.equals(DEFAULT_LOCALE) ? DATA_FOLDER : DATA_FOLDER + "/" + locale;
+    }
+
+    /**
+     * Switches the game content to another language in the background. Returns immediately.
+     *
+     * @param locale the language code
+     * @return a future that completes once the new language is active or has failed to load
+     */
+    public Future<?> switchLocale(final String locale) {
+        return loader.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (!findLocales().contains(locale)) {
+                        throw new InvalidDataException("no content folder " + folderOf(locale));
+                    }
+                    LocaleBank bank = bankOf(locale);
+                    ContentStore.switchTogether(new ContentStore[] { questions, infos },
+                            new String[] { questionPathOf(locale), infoPathOf(locale) },
+                            new ContentIndex[] { bank.questions, bank.infos });
+                    activeLocale = locale;
+                    Logger.log("Content language switched to " + locale + ".");
+                }
+                catch (Exception e) {
+                    Logger.log("Content language " + locale + " cannot load, keeping " + activeLocale + ": " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the code of the active language
+     */
+    public String getActiveLocale() {
+        return activeLocale;
+    }
+
+    /**
+     * Returns the banks of a language from the cache, loading them if they are missing or their files have changed.
+     */
+    private LocaleBank bankOf(String locale) throws Exception {
+        String questionPath = questionPathOf(locale);
+        String infoPath = infoPathOf(locale);
+        long questionsModified = new File(questionPath).lastModified();
+        long infosModified = new File(infoPath).lastModified();
+
+        LocaleBank bank;
+        synchronized (cache) {
+            bank = cache.get(locale);
+        }
+        if (bank != null && bank.questionsModified == questionsModified && bank.infosModified == infosModified) {
+            return bank;
+        }
+
+        bank = new LocaleBank();
+        bank.questions = ContentIndex.load(questionPath);
+        bank.infos = ContentIndex.load(infoPath);
+        bank.questionsModified = questionsModified;
+        bank.infosModified = infosModified;
+        synchronized (cache) {
+            cache.put(locale, bank);
+        }
+        return bank;
+    }
+
+    private static String pathOf(String locale, String fileName, String defaultPath) {
+        if (locale.equals(DEFAULT_LOCALE)) {
+            return defaultPath;
+        }
+        File file = new File(folderOf(locale), fileName);
+        return file.isFile() ? folderOf(locale) + "/" + fileName : defaultPath;
+    }
+}
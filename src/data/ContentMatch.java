@@ -0,0 +1,63 @@
+package data;
+
+/**
+ * One entry found by {@link ContentSearch}: where it lives and what it says.
+ */
+public class ContentMatch {
+
+    private final String source;
+    private final int level;
+    private final int index;
+    private final String text;
+
+    /**
+     * Constructs a match.
+     *
+     * @param source the name of the content the entry belongs to, such as "questions"
+     * @param level  the level of the entry
+     * @param index  the index of the entry within its level
+     * @param text   the text of the entry
+     */
+    public ContentMatch(String source, int level, int index, String text) {
+        this.source = source;
+        this.level = level;
+        this.index = index;
+        this.text = text;
+    }
+
+    /**
+     * @return the name of the content the entry belongs to
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * @return the level of the entry
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * @return the index of the entry within its level
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the text of the entry
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return the match in the format: "source, level N, #index: text"
+     */
+    @Override
+    public String toString() {
+        return source + ", level " + level + ", #" + index + ": " + text;
+    }
+}
@@ -0,0 +1,206 @@
+package data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+
+/**
+ * Reads and writes precompiled binary content packs, the startup-friendly form of a {@link ContentIndex}.
+ *
+ * A pack is written next to its text file with the extension {@code .pack}, for example {@code data/questions.pack}
+ * for {@code data/questions.txt}. It holds the tables of the index exactly as they are used at run time, so loading
+ * it is a matter of mapping the file read-only and checking the header; nothing is parsed.
+ *
+ * Layout, all numbers big-endian:
+ *
+ * header (48 bytes): magic, version, source size, source modification time, level table length, entry count,
+ * arena size, CRC32C of the body, CRC32 of the header bytes before it, padding
+ * body: level start table, entry offsets, entry lengths, entry weights (all ints), then the UTF-8 arena
+ *
+ * The header records the size and modification time of the text file the pack was compiled from. A pack whose
+ * text file has changed since is stale and is ignored, so editing the text file never serves old content.
+ *
+ * This class provides static utility methods and is not intended to be instantiated.
+ */
+public class ContentPack {
+
+    /** "KSCP" */
+    private static final int MAGIC = 0x4B534350;
+
+    /** Format version; packs of any other version are ignored */
+    public static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 48;
+    private static final int HEADER_CHECKED_BYTES = 40;
+
+    private ContentPack() {
+    }
+
+    /**
+     * Returns the pack path of a content file, its path with the extension replaced by {@code .pack}.
+     *
+     * @param filePath path of the content file
+     * @return path of the pack
+     */
+    public static String packPathOf(String filePath) {
+        int dot = filePath.lastIndexOf('.');
+        int separator = Math.max(filePath.lastIndexOf('/'), filePath.lastIndexOf(File.separatorChar));
+        String base = dot > separator ? filePath.substring(0, dot) : filePath;
+        return base + ".pack";
+    }
+
+    /**
+     * Compiles a content file into its pack. The pack is written to a temporary file first and then moved into
+     * place, so a game loading at the same time sees either the old or the new pack, never a partial one.
+     *
+     * @param filePath path of the content file
+     * @return the compiled index
+     * @throws IOException if the content file cannot be read or the pack cannot be written
+     */
+    public static ContentIndex compile(String filePath) throws IOException {
+        Path source = Paths.get(filePath);
+        long sourceSize = Files.size(source);
+        long sourceModified = Files.getLastModifiedTime(source).toMillis();
+        ContentIndex index = ContentIndex.loadText(filePath);
+
+        IntBuffer levelStarts = index.getLevelStarts();
+        int entryCount = index.getTotalEntryCount();
+        ByteBuffer arena = index.getArena();
+        int arenaSize = arena.limit();
+
+        ByteBuffer body = ByteBuffer.allocate((levelStarts.limit() + entryCount * 3) * 4 + arenaSize);
+        putInts(body, levelStarts);
+        putInts(body, index.getEntryOffsets());
+        putInts(body, index.getEntryLengths());
+        putInts(body, index.getEntryWeights());
+        for (int i = 0; i < arenaSize; i++) {
+            body.put(arena.get(i));
+        }
+        body.flip();
+
+        CRC32C bodyCrc = new CRC32C();
+        bodyCrc.update(body.duplicate());
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putLong(sourceSize);
+        header.putLong(sourceModified);
+        header.putInt(levelStarts.limit());
+        header.putInt(entryCount);
+        header.putInt(arenaSize);
+        header.putInt((int) bodyCrc.getValue());
+        header.putInt(headerCrc(header));
+        header.position(0);
+
+        Path pack = Paths.get(packPathOf(filePath));
+        Path temporary = pack.resolveSibling(pack.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            while (body.hasRemaining()) {
+                channel.write(body);
+            }
+        }
+        Files.move(temporary, pack, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return index;
+    }
+
+    /**
+     * Maps the pack of a content file if it exists, is intact and was compiled from the current text file.
+     *
+     * @param filePath path of the content file
+     * @return the index backed by the mapped pack, or {@code null} if the text file has to be parsed instead
+     * @throws IOException if an existing pack cannot be read
+     */
+    public static ContentIndex loadIfCurrent(String filePath) throws IOException {
+        Path pack = Paths.get(packPathOf(filePath));
+        if (!Files.isRegularFile(pack)) {
+            return null;
+        }
+
+        MappedByteBuffer file;
+        try (FileChannel channel = FileChannel.open(pack, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                Logger.log("Content pack " + pack + " is damaged, loading " + filePath + " instead.");
+                return null;
+            }
+            file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (file.getInt(0) != MAGIC || file.getInt(4) != VERSION || file.getInt(HEADER_CHECKED_BYTES) != headerCrc(file)) {
+            Logger.log("Content pack " + pack + " has an unknown format, loading " + filePath + " instead.");
+            return null;
+        }
+
+        Path source = Paths.get(filePath);
+        if (Files.exists(source) && (Files.size(source) != file.getLong(8)
+                || Files.getLastModifiedTime(source).toMillis() != file.getLong(16))) {
+            Logger.log("Content pack " + pack + " is stale, loading " + filePath + " instead.");
+            return null;
+        }
+
+        int levelSlots = file.getInt(24);
+        int entryCount = file.getInt(28);
+        int arenaSize = file.getInt(32);
+        long bodySize = (levelSlots + (long) entryCount * 3) * 4 + arenaSize;
+        if (levelSlots < 2 || levelSlots > ContentIndex.MAX_LEVEL + 2 || entryCount < 0 || arenaSize < 0 || HEADER_SIZE + bodySize != file.limit()) {
+            Logger.log("Content pack " + pack + " is damaged, loading " + filePath + " instead.");
+            return null;
+        }
+
+        CRC32C bodyCrc = new CRC32C();
+        bodyCrc.update(section(file, HEADER_SIZE, (int) bodySize));
+        if ((int) bodyCrc.getValue() != file.getInt(36)) {
+            Logger.log("Content pack " + pack + " fails its checksum, loading " + filePath + " instead.");
+            return null;
+        }
+
+        int position = HEADER_SIZE;
+        IntBuffer levelStarts = section(file, position, levelSlots * 4).asIntBuffer();
+        position += levelSlots * 4;
+        IntBuffer entryOffsets = section(file, position, entryCount * 4).asIntBuffer();
+        position += entryCount * 4;
+        IntBuffer entryLengths = section(file, position, entryCount * 4).asIntBuffer();
+        position += entryCount * 4;
+        IntBuffer entryWeights = section(file, position, entryCount * 4).asIntBuffer();
+        position += entryCount * 4;
+        ByteBuffer arena = section(file, position, arenaSize);
+
+        return new ContentIndex(arena, entryOffsets, entryLengths, entryWeights, levelStarts);
+    }
+
+    /**
+     * @return a view of {@code length} bytes of the buffer starting at {@code offset}
+     */
+    private static ByteBuffer section(ByteBuffer buffer, int offset, int length) {
+        return buffer.duplicate().position(offset).limit(offset + length).slice();
+    }
+
+    /**
+     * @return the CRC32 of the header fields before the header checksum
+     */
+    private static int headerCrc(ByteBuffer header) {
+        CRC32 crc = new CRC32();
+        crc.update(section(header, 0, HEADER_CHECKED_BYTES));
+        return (int) crc.getValue();
+    }
+
+    private static void putInts(ByteBuffer target, IntBuffer values) {
+        for (int i = 0; i < values.limit(); i++) {
+            target.putInt(values.get(i));
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package data;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Watches content files such as {@code questions.txt} and {@code info.txt} and reloads them when they change.
+ *
+ * A {@link WatchService} observes the folders of the registered {@link ContentStore}s on a background daemon
+ * thread. When a watched file is created or modified, the file is parsed again and the store's snapshot is swapped;
+ * running games pick up the new content at their next draw. Editors often write a file in several steps, so
+ * events are collected for a short settle delay before reloading.
+ *
+ * Stores can be pointed at files in other folders while the game runs, for example when the language changes.
+ * Such folders are registered up front with {@link #addFolder}.
+ *
+ * If a changed file cannot be parsed, the error is logged and the previous content stays active.
+ */
+public class ContentReloader {
+
+    /** Time to wait for further events of the same save before reloading, in milliseconds */
+    private static final long SETTLE_MILLIS = 200;
+
+    private final List<ContentStore> stores = new ArrayList<>();
+    private final List<Path> extraFolders = new ArrayList<>();
+    private WatchService watchService;
+    private Thread thread;
+
+    /**
+     * Constructs a reloader for the given stores.
+     *
+     * @param stores the stores whose files should be watched
+     */
+    public ContentReloader(ContentStore... stores) {
+        for (ContentStore store : stores) {
+            this.stores.add(store);
+        }
+    }
+
+    /**
+     * Adds a folder to watch besides the folders of the stores' current files. Must be called before {@link #start()}.
+     *
+     * @param folder the folder
+     */
+    public void addFolder(String folder) {
+        extraFolders.add(Paths.get(folder).toAbsolutePath().normalize());
+    }
+
+    /**
+     * Starts watching on a background daemon thread.
+     *
+     * @throws IOException if the folders cannot be watched
+     */
+    public void start() throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        List<Path> folders = new ArrayList<>();
+        List<Path> candidates = new ArrayList<>();
+        for (ContentStore store : stores) {
+            candidates.add(folderOf(store));
+        }
+        candidates.addAll(extraFolders);
+        for (Path folder : candidates) {
+            if (!folders.contains(folder)) {
+                folder.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+                folders.add(folder);
+            }
+        }
+
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                watch();
+            }
+        }, "content-reloader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching.
+     */
+    public void stop() {
+        if (thread != null) {
+            thread.interrupt();
+        }
+        try {
+            if (watchService != null) {
+                watchService.close();
+            }
+        }
+        catch (IOException e) {
+            Logger.log("Content watcher cannot close: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Waits for file events and reloads the affected stores until the thread is stopped.
+     */
+    private void watch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                List<ContentStore> changed = new ArrayList<>();
+                collectChanges(key, changed);
+
+                // Let the editor finish writing, then take any further events of the same save as well.
+                Thread.sleep(SETTLE_MILLIS);
+                WatchKey next;
+                while ((next = watchService.poll()) != null) {
+                    collectChanges(next, changed);
+                }
+
+                for (ContentStore store : changed) {
+                    try {
+                        store.reload();
+                        Logger.log("Reloaded " + store.getFilePath() + ": " + store.get().getTotalEntryCount() + " entries.");
+                    }
+                    catch (IOException e) {
+                        Logger.log("Content cannot reload, keeping previous version of " + store.getFilePath() + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (Exception e) {
+            // ClosedWatchServiceException after stop() ends the thread as well.
+        }
+    }
+
+    /**
+     * Adds the stores whose files are named in the events of the key, and re-arms the key.
+     */
+    private void collectChanges(WatchKey key, List<ContentStore> changed) {
+        Path folder = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                for (ContentStore store : stores) {
+                    if (!changed.contains(store)) {
+                        changed.add(store);
+                    }
+                }
+                continue;
+            }
+
+            Path file = folder.resolve((Path) event.context()).toAbsolutePath().normalize();
+            for (ContentStore store : stores) {
+                if (Paths.get(store.getFilePath()).toAbsolutePath().normalize().equals(file) && !changed.contains(store)) {
+                    changed.add(store);
+                }
+            }
+        }
+        key.reset();
+    }
+
+    private static Path folderOf(ContentStore store) {
+        Path parent = Paths.get(store.getFilePath()).toAbsolutePath().normalize().getParent();
+        return parent != null ? parent : Paths.get("").toAbsolutePath();
+    }
+}
@@ -0,0 +1,151 @@
+package data;
+
+/**
+ * Draws texts from a {@link ContentIndex} without repetition, with one {@link ShuffleBag} per level.
+ *
+ * Within a level, every entry comes up once per cycle before any entry repeats (or {@code weight} times for
+ * weighted entries). A sampler belongs to a single game session: bags and coverage statistics start fresh for
+ * every session. Bags are built the first time a level is drawn from; after that, drawing an index is O(1) and
+ * allocation-free, so it is safe to use in the fire path.
+ *
+ * Coverage statistics record how many distinct entries of each level the session has seen.
+ *
+ * The sampler reads its content from a {@link ContentStore}. When the store has been reloaded, the next draw
+ * notices the new snapshot and starts over with fresh bags and coverage for it. Checking for a new snapshot is a
+ * single volatile read, so the draw path never locks.
+ */
+public class ContentSampler {
+
+    private final ContentStore store;
+    private final RandomSource random;
+
+    /** The snapshot the bags were built for */
+    private ContentIndex index;
+
+    /** Bag and seen-entry bit set of each level, created on the first draw from the level */
+    private ShuffleBag[] bags;
+    private long[][] seen;
+    private int[] distinctCounts;
+    private long drawCount;
+
+    /**
+     * Constructs a sampler for one session.
+     *
+     * @param store  the content to draw from
+     * @param random the random stream of the session
+     */
+    public ContentSampler(ContentStore store, RandomSource random) {
+        this.store = store;
+        this.random = random;
+        useSnapshot(store.get());
+    }
+
+    /**
+     * Draws the index of the next entry of the given level.
+     *
+     * @param level the level to draw from
+     * @return the index of the entry within its level, or -1 if the level has no entries
+     */
+    public int nextIndex(int level) {
+        ContentIndex current = store.get();
+        if (current != index) {
+            useSnapshot(current);
+        }
+        if (index.getEntryCount(level) == 0) {
+            return -1;
+        }
+        if (bags[level] == null) {
+            createBag(level);
+        }
+
+        int entry = bags[level].draw(random);
+        long bit = 1L << (entry & 63);
+        if ((seen[level][entry >> 6] & bit) == 0) {
+            seen[level][entry >> 6] |= bit;
+            distinctCounts[level]++;
+        }
+        drawCount++;
+        return entry;
+    }
+
+    /**
+     * Draws the text of the next entry of the given level.
+     *
+     * @param level the level to draw from
+     * @return the text, or "Unknown level." if the level has no entries
+     */
+    public String next(int level) {
+        return getText(level, nextIndex(level));
+    }
+
+    /**
+     * Decodes an entry drawn with {@link #nextIndex} from the snapshot the sampler currently uses.
+     *
+     * @param level the level of the entry
+     * @param entry the index of the entry within its level
+     * @return the text, or "Unknown level." if the entry does not exist
+     */
+    public String getText(int level, int entry) {
+        if (entry < 0 || entry >= index.getEntryCount(level)) {
+            return "Unknown level.";
+        }
+        return index.getText(level, entry);
+    }
+
+    /**
+     * @param level the level
+     * @return the share of the level's entries drawn at least once in this session, between 0 and 1
+     */
+    public double getCoverage(int level) {
+        int count = index.getEntryCount(level);
+        return count == 0 ? 0 : (double) distinctCounts[level] / count;
+    }
+
+    /**
+     * Returns a short summary of the coverage of every level that was drawn from, used for logging.
+     *
+     * @return A string in the format: "draws: N, level 1: seen/total, level 2: seen/total, ..."
+     */
+    public String getStatistics() {
+        StringBuilder stringBuilder = new StringBuilder("draws: ").append(drawCount);
+        for (int level = 1; level < bags.length; level++) {
+            if (bags[level] != null) {
+                stringBuilder.append(", level ").append(level).append(": ")
+                        .append(distinctCounts[level]).append('/').append(index.getEntryCount(level));
+            }
+        }
+        return stringBuilder.toString();
+    }
+
+    /**
+     * Switches to the given snapshot and drops the bags and coverage of the previous one.
+     */
+    private void useSnapshot(ContentIndex snapshot) {
+        index = snapshot;
+        bags = new ShuffleBag[snapshot.getLevelCount() + 1];
+        seen = new long[snapshot.getLevelCount() + 1][];
+        distinctCounts = new int[snapshot.getLevelCount() + 1];
+    }
+
+    /**
+     * Builds the bag of a level, putting every entry into as many slots as its weight.
+     */
+    private void createBag(int level) {
+        int count = index.getEntryCount(level);
+        int slotCount = 0;
+        for (int i = 0; i < count; i++) {
+            slotCount += index.getWeight(level, i);
+        }
+
+        int[] slots = new int[slotCount];
+        int slot = 0;
+        for (int i = 0; i < count; i++) {
+            for (int copy = index.getWeight(level, i); copy > 0; copy--) {
+                slots[slot++] = i;
+            }
+        }
+
+        bags[level] = new ShuffleBag(slots);
+        seen[level] = new long[(count + 63) / 64];
+    }
+}
@@ -0,0 +1,479 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The {@code ContentSearch} class finds entries in the question and info banks, for curating content.
+ *
+ * Every source (for example the question store and the info store) gets an inverted index that maps each token
+ * to the sorted list of entries containing it. Tokens are lower-cased runs of letters and digits. The token
+ * dictionary is kept sorted, so a prefix query is a binary search for a range of tokens.
+ *
+ * A query is a list of terms separated by spaces. An entry matches if it contains every term; a term ending
+ * in {@code *} matches every token that starts with it. For example {@code "interface abstract*"} finds entries
+ * that contain "interface" and "abstract", "abstraction", and so on.
+ *
+ * {@link #findNearDuplicates} groups entries whose texts are nearly the same. Each entry is reduced to its set of
+ * word pairs (shingles) and a MinHash signature of that set; locality-sensitive hashing over bands of the signature
+ * proposes candidates, which are confirmed by comparing whole signatures. This finds duplicates without comparing
+ * every pair of entries.
+ *
+ * Indexes are built per source on first use and rebuilt only for the sources whose store has published a new
+ * snapshot since, so the search follows hot reloads and language switches.
+ */
+public class ContentSearch {
+
+    /** Number of hash values in a MinHash signature */
+    private static final int SIGNATURE_SIZE = 32;
+
+    /** Signature values per LSH band; SIGNATURE_SIZE / BAND_ROWS bands are used */
+    private static final int BAND_ROWS = 4;
+
+    private final List<String> names = new ArrayList<>();
+    private final List<ContentStore> stores = new ArrayList<>();
+    private final List<Segment> segments = new ArrayList<>();
+
+    /**
+     * The index of one source, built for a single snapshot.
+     */
+    private static class Segment {
+        private ContentIndex snapshot;
+
+        /** First entry of each level, in the numbering used by the postings */
+        private int[] levelStarts;
+        private int entryCount;
+
+        /** Sorted token dictionary; the entries of tokens[i] are postings[postingStarts[i]] to postings[postingStarts[i + 1]] */
+        private String[] tokens;
+        private int[] postingStarts;
+        private int[] postings;
+
+        /** MinHash signatures of all entries, SIGNATURE_SIZE values each, computed on first use */
+        private int[] signatures;
+    }
+
+    /**
+     * Adds a source to search.
+     *
+     * @param name  the name reported in matches, such as "questions"
+     * @param store the store whose current snapshot is searched
+     */
+    public synchronized void addSource(String name, ContentStore store) {
+        names.add(name);
+        stores.add(store);
+        segments.add(null);
+    }
+
+    /**
+     * Rebuilds the indexes of all sources whose store has a new snapshot. Queries do this by themselves;
+     * calling it ahead of time, for example after a reload, keeps the next query fast.
+     */
+    public synchronized void refresh() {
+        ContentIndex[] snapshots = ContentStore.getAll(stores);
+        for (int source = 0; source < stores.size(); source++) {
+            segmentOf(source, snapshots[source]);
+        }
+    }
+
+    /**
+     * Finds the entries that contain every term of the query.
+     *
+     * @param query the terms, separated by spaces; a term ending in {@code *} is a prefix
+     * @param limit the maximum number of matches to return
+     * @return the matches, in source, level and file order
+     */
+    public synchronized List<ContentMatch> search(String query, int limit) {
+        List<String> terms = new ArrayList<>();
+        List<Boolean> prefixes = new ArrayList<>();
+        List<String> partTokens = new ArrayList<>();
+        for (String part : query.trim().split("\\s+")) {
+            boolean prefix = part.endsWith("*");
+            partTokens.clear();
+            tokenize(prefix ? part.substring(0, part.length() - 1) : part, partTokens);
+            for (int i = 0; i < partTokens.size(); i++) {
+                terms.add(partTokens.get(i));
+                prefixes.add(prefix && i == partTokens.size() - 1);
+            }
+        }
+
+        List<ContentMatch> matches = new ArrayList<>();
+        if (terms.isEmpty()) {
+            return matches;
+        }
+
+        ContentIndex[] snapshots = ContentStore.getAll(stores);
+        for (int source = 0; source < stores.size() && matches.size() < limit; source++) {
+            Segment segment = segmentOf(source, snapshots[source]);
+
+            int[][] lists = new int[terms.size()][];
+            for (int i = 0; i < terms.size(); i++) {
+                lists[i] = prefixes.get(i) ? prefixPostings(segment, terms.get(i)) : exactPostings(segment, terms.get(i));
+            }
+
+            int[] result = intersect(lists);
+            for (int i = 0; i < result.length && matches.size() < limit; i++) {
+                matches.add(matchOf(source, segment, result[i]));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Groups near-duplicate entries within each source.
+     *
+     * @param threshold the estimated share of common word pairs (Jaccard similarity) from which two entries
+     *                  count as duplicates, between 0 and 1
+     * @return the groups of two or more near-duplicate entries
+     */
+    public synchronized List<List<ContentMatch>> findNearDuplicates(double threshold) {
+        List<List<ContentMatch>> groups = new ArrayList<>();
+        int minCommon = (int) Math.ceil(threshold * SIGNATURE_SIZE);
+
+        ContentIndex[] snapshots = ContentStore.getAll(stores);
+        for (int source = 0; source < stores.size(); source++) {
+            Segment segment = segmentOf(source, snapshots[source]);
+            if (segment.signatures == null) {
+                segment.signatures = computeSignatures(segment);
+            }
+            int[] signatures = segment.signatures;
+            int count = segment.entryCount;
+
+            // Union-find over entries; every confirmed candidate pair joins two groups.
+            int[] parents = new int[count];
+            for (int i = 0; i < count; i++) {
+                parents[i] = i;
+            }
+
+            long[] keyed = new long[count];
+            for (int band = 0; band < SIGNATURE_SIZE / BAND_ROWS; band++) {
+                for (int entry = 0; entry < count; entry++) {
+                    int hash = 17;
+                    for (int row = 0; row < BAND_ROWS; row++) {
+                        hash = hash * 31 + signatures[entry * SIGNATURE_SIZE + band * BAND_ROWS + row];
+                    }
+                    keyed[entry] = ((long) hash << 32) | entry;
+                }
+                Arrays.sort(keyed);
+
+                // Entries with the same band hash form a bucket; compare each one with the first of its bucket.
+                int bucketStart = 0;
+                for (int i = 1; i <= count; i++) {
+                    if (i < count && (keyed[i] >>> 32) == (keyed[bucketStart] >>> 32)) {
+                        int first = (int) keyed[bucketStart];
+                        int other = (int) keyed[i];
+                        if (find(parents, first) != find(parents, other)
+                                && commonValues(signatures, first, other) >= minCommon) {
+                            parents[find(parents, other)] = find(parents, first);
+                        }
+                    }
+                    else {
+                        bucketStart = i;
+                    }
+                }
+            }
+
+            int[] groupSizes = new int[count];
+            for (int entry = 0; entry < count; entry++) {
+                groupSizes[find(parents, entry)]++;
+            }
+            Map<Integer, List<ContentMatch>> byRoot = new HashMap<>();
+            for (int entry = 0; entry < count; entry++) {
+                int root = find(parents, entry);
+                if (groupSizes[root] < 2) {
+                    continue;
+                }
+                List<ContentMatch> group = byRoot.get(root);
+                if (group == null) {
+                    group = new ArrayList<>();
+                    byRoot.put(root, group);
+                    groups.add(group);
+                }
+                group.add(matchOf(source, segment, entry));
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Splits a text into lower-case tokens of letters and digits.
+     *
+     * @param text   the text
+     * @param tokens the list the tokens are added to
+     */
+    static void tokenize(String text, List<String> tokens) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean part = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (part && start < 0) {
+                start = i;
+            }
+            else if (!part && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+    }
+
+    /**
+     * Returns the index of a source for a snapshot read with {@link ContentStore#getAll}, rebuilding it if the
+     * snapshot is new. Reading all sources at once keeps linked sources, such as the questions and infos of one
+     * language, from being searched in different languages.
+     */
+    private Segment segmentOf(int source, ContentIndex snapshot) {
+        Segment segment = segments.get(source);
+        if (segment == null || segment.snapshot != snapshot) {
+            segment = build(snapshot);
+            segments.set(source, segment);
+        }
+        return segment;
+    }
+
+    /**
+     * Builds the inverted index of one snapshot.
+     */
+    private static Segment build(ContentIndex snapshot) {
+        Segment segment = new Segment();
+        segment.snapshot = snapshot;
+        segment.levelStarts = new int[snapshot.getLevelCount() + 2];
+        for (int level = 1; level <= snapshot.getLevelCount(); level++) {
+            segment.levelStarts[level + 1] = segment.levelStarts[level] + snapshot.getEntryCount(level);
+        }
+        segment.entryCount = snapshot.getTotalEntryCount();
+
+        // Postings grow per token while entries are added in order, so every list comes out sorted.
+        Map<String, Integer> tokenIds = new HashMap<>();
+        List<int[]> lists = new ArrayList<>();
+        int[] sizes = new int[64];
+        List<String> tokens = new ArrayList<>();
+        int postingCount = 0;
+
+        int entry = 0;
+        for (int level = 1; level <= snapshot.getLevelCount(); level++) {
+            for (int index = 0; index < snapshot.getEntryCount(level); index++, entry++) {
+                tokens.clear();
+                tokenize(snapshot.getText(level, index), tokens);
+                for (String token : tokens) {
+                    Integer id = tokenIds.get(token);
+                    if (id == null) {
+                        id = lists.size();
+                        tokenIds.put(token, id);
+                        lists.add(new int[4]);
+                        if (id == sizes.length) {
+                            sizes = Arrays.copyOf(sizes, id * 2);
+                        }
+                    }
+                    int[] list = lists.get(id);
+                    int size = sizes[id];
+                    if (size > 0 && list[size - 1] == entry) {
+                        continue;
+                    }
+                    if (size == list.length) {
+                        list = Arrays.copyOf(list, size * 2);
+                        lists.set(id, list);
+                    }
+                    list[size] = entry;
+                    sizes[id] = size + 1;
+                    postingCount++;
+                }
+            }
+        }
+
+        String[] sorted = tokenIds.keySet().toArray(new String[0]);
+        Arrays.sort(sorted);
+        segment.tokens = sorted;
+        segment.postingStarts = new int[sorted.length + 1];
+        segment.postings = new int[postingCount];
+        int position = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            int id = tokenIds.get(sorted[i]);
+            System.arraycopy(lists.get(id), 0, segment.postings, position, sizes[id]);
+            position += sizes[id];
+            segment.postingStarts[i + 1] = position;
+        }
+        return segment;
+    }
+
+    /**
+     * @return the sorted entries that contain the token
+     */
+    private static int[] exactPostings(Segment segment, String token) {
+        int i = Arrays.binarySearch(segment.tokens, token);
+        if (i < 0) {
+            return new int[0];
+        }
+        return Arrays.copyOfRange(segment.postings, segment.postingStarts[i], segment.postingStarts[i + 1]);
+    }
+
+    /**
+     * @return the sorted entries that contain a token starting with the prefix
+     */
+    private static int[] prefixPostings(Segment segment, String prefix) {
+        int from = lowerBound(segment.tokens, prefix);
+        int to = lowerBound(segment.tokens, prefix + Character.MAX_VALUE);
+        if (to - from == 1) {
+            return Arrays.copyOfRange(segment.postings, segment.postingStarts[from], segment.postingStarts[to]);
+        }
+
+        // Several tokens: merge their lists through a bit set over the entries.
+        long[] bits = new long[(segment.entryCount + 63) / 64];
+        int count = 0;
+        for (int p = segment.postingStarts[from]; p < segment.postingStarts[to]; p++) {
+            int entry = segment.postings[p];
+            long bit = 1L << (entry & 63);
+            if ((bits[entry >> 6] & bit) == 0) {
+                bits[entry >> 6] |= bit;
+                count++;
+            }
+        }
+        int[] result = new int[count];
+        int position = 0;
+        for (int word = 0; word < bits.length; word++) {
+            long value = bits[word];
+            while (value != 0) {
+                result[position++] = word * 64 + Long.numberOfTrailingZeros(value);
+                value &= value - 1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the entries contained in every list, starting with the shortest list
+     */
+    private static int[] intersect(int[][] lists) {
+        int[][] ordered = lists.clone();
+        Arrays.sort(ordered, new Comparator<int[]>() {
+            @Override
+            public int compare(int[] a, int[] b) {
+                return Integer.compare(a.length, b.length);
+            }
+        });
+
+        int[] result = ordered[0];
+        for (int l = 1; l < ordered.length && result.length > 0; l++) {
+            int[] other = ordered[l];
+            int[] next = new int[result.length];
+            int size = 0;
+            int j = 0;
+            for (int i = 0; i < result.length; i++) {
+                // Galloping search: the other list is usually much longer.
+                int low = j;
+                int step = 1;
+                while (low + step < other.length && other[low + step] < result[i]) {
+                    low += step;
+                    step *= 2;
+                }
+                int high = Math.min(other.length, low + step + 1);
+                int found = Arrays.binarySearch(other, low, high, result[i]);
+                if (found >= 0) {
+                    next[size++] = result[i];
+                    j = found + 1;
+                }
+                else {
+                    j = -found - 1;
+                }
+            }
+            result = Arrays.copyOf(next, size);
+        }
+        return result;
+    }
+
+    /**
+     * Computes the MinHash signatures of all entries of a segment over their word pair shingles.
+     */
+    private static int[] computeSignatures(Segment segment) {
+        ContentIndex snapshot = segment.snapshot;
+        int[] signatures = new int[segment.entryCount * SIGNATURE_SIZE];
+        List<String> tokens = new ArrayList<>();
+
+        int entry = 0;
+        for (int level = 1; level <= snapshot.getLevelCount(); level++) {
+            for (int index = 0; index < snapshot.getEntryCount(level); index++, entry++) {
+                tokens.clear();
+                tokenize(snapshot.getText(level, index), tokens);
+                int base = entry * SIGNATURE_SIZE;
+                Arrays.fill(signatures, base, base + SIGNATURE_SIZE, Integer.MAX_VALUE);
+
+                int shingleCount = Math.max(1, tokens.size() - 1);
+                for (int s = 0; s < shingleCount; s++) {
+                    long shingle = tokens.isEmpty() ? 0 : tokens.get(s).hashCode();
+                    if (s + 1 < tokens.size()) {
+                        shingle = shingle * 0x9E3779B97F4A7C15L + tokens.get(s + 1).hashCode();
+                    }
+
+                    // SIGNATURE_SIZE hash functions derived from two base hashes (h1 + k * h2).
+                    long h1 = mix(shingle);
+                    long h2 = mix(shingle ^ 0x5851F42D4C957F2DL) | 1;
+                    for (int k = 0; k < SIGNATURE_SIZE; k++) {
+                        int value = (int) ((h1 + k * h2) >>> 33);
+                        if (value < signatures[base + k]) {
+                            signatures[base + k] = value;
+                        }
+                    }
+                }
+            }
+        }
+        return signatures;
+    }
+
+    /**
+     * @return the number of equal signature values of two entries
+     */
+    private static int commonValues(int[] signatures, int a, int b) {
+        int common = 0;
+        for (int k = 0; k < SIGNATURE_SIZE; k++) {
+            if (signatures[a * SIGNATURE_SIZE + k] == signatures[b * SIGNATURE_SIZE + k]) {
+                common++;
+            }
+        }
+        return common;
+    }
+
+    private static int find(int[] parents, int entry) {
+        while (parents[entry] != entry) {
+            parents[entry] = parents[parents[entry]];
+            entry = parents[entry];
+        }
+        return entry;
+    }
+
+    private ContentMatch matchOf(int source, Segment segment, int entry) {
+        int level = 1;
+        while (segment.levelStarts[level + 1] <= entry) {
+            level++;
+        }
+        int index = entry - segment.levelStarts[level];
+        return new ContentMatch(names.get(source), level, index, segment.snapshot.getText(level, index));
+    }
+
+    private static int lowerBound(String[] sorted, String key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle].compareTo(key) < 0) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return a well-mixed 64-bit hash of the value (SplitMix64 finalizer)
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,180 @@
+package data;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Holds the current {@link ContentIndex} snapshot of one content file.
+ *
+ * Snapshots are immutable, so readers simply take the current reference and use it without any locking.
+ * {@link #reload()} parses the file into a new snapshot and publishes it with a single volatile write;
+ * readers that already hold the old snapshot keep using it until they ask again.
+ *
+ * {@link #switchTo} points the store at another file, such as the same content in another language, together
+ * with its already loaded snapshot. Writers are serialized so a reload of the old file can never overwrite a switch.
+ *
+ * Stores whose contents belong together, such as the questions and infos of one language, can be {@link #link}ed.
+ * Linked stores publish through one shared reference, so {@link #switchTogether} replaces all of their snapshots
+ * in a single volatile write and {@link #getAll} reads them as one consistent set.
+ */
+public class ContentStore {
+
+    /**
+     * The file paths and snapshots of all stores of a group at one moment. Never changed once published.
+     */
+    private static class Published {
+        private final String[] filePaths;
+        private final ContentIndex[] snapshots;
+
+        private Published(String[] filePaths, ContentIndex[] snapshots) {
+            this.filePaths = filePaths;
+            this.snapshots = snapshots;
+        }
+    }
+
+    /**
+     * Stores that are published together; writers of the group lock it.
+     */
+    private static class Group {
+        private volatile Published current;
+    }
+
+    private volatile Group group;
+    private int slot;
+
+    /**
+     * Constructs a store for the given content file. Nothing is loaded until {@link #reload()} is called.
+     *
+     * @param filePath path of the content file
+     */
+    public ContentStore(String filePath) {
+        group = new Group();
+        group.current = new Published(new String[] { filePath }, new ContentIndex[1]);
+    }
+
+    /**
+     * Parses the content file and atomically replaces the current snapshot.
+     * If parsing fails, the current snapshot stays in place.
+     *
+     * @throws IOException if the file cannot be read
+     */
+    public void reload() throws IOException {
+        Group locked = group;
+        synchronized (locked) {
+            ContentIndex snapshot = ContentIndex.load(getFilePath());
+            publish(locked, slot, getFilePath(), snapshot);
+        }
+    }
+
+    /**
+     * Points the store at another content file and publishes its snapshot.
+     *
+     * @param filePath path of the new content file
+     * @param snapshot the loaded content of that file
+     */
+    public void switchTo(String filePath, ContentIndex snapshot) {
+        Group locked = group;
+        synchronized (locked) {
+            publish(locked, slot, filePath, snapshot);
+        }
+    }
+
+    /**
+     * @return the current snapshot
+     */
+    public ContentIndex get() {
+        return group.current.snapshots[slot];
+    }
+
+    /**
+     * @return the path of the current content file
+     */
+    public String getFilePath() {
+        return group.current.filePaths[slot];
+    }
+
+    /**
+     * Links stores so that their snapshots are published and read together from now on. Each store keeps its
+     * current file and snapshot. Must be called before the stores are used by more than one thread.
+     *
+     * @param stores the stores to link
+     */
+    public static void link(ContentStore... stores) {
+        Group linked = new Group();
+        String[] filePaths = new String[stores.length];
+        ContentIndex[] snapshots = new ContentIndex[stores.length];
+        for (int i = 0; i < stores.length; i++) {
+            filePaths[i] = stores[i].getFilePath();
+            snapshots[i] = stores[i].get();
+        }
+        linked.current = new Published(filePaths, snapshots);
+        for (int i = 0; i < stores.length; i++) {
+            stores[i].slot = i;
+            stores[i].group = linked;
+        }
+    }
+
+    /**
+     * Points linked stores at other files and publishes all of their snapshots at once, so no reader ever sees
+     * some stores switched and others not.
+     *
+     * @param stores    the stores, all linked with each other
+     * @param filePaths the new content file of each store
+     * @param snapshots the loaded content of each file
+     * @throws IllegalArgumentException if the stores are not linked
+     */
+    public static void switchTogether(ContentStore[] stores, String[] filePaths, ContentIndex[] snapshots) {
+        Group locked = stores[0].group;
+        synchronized (locked) {
+            Published current = locked.current;
+            String[] newPaths = current.filePaths.clone();
+            ContentIndex[] newSnapshots = current.snapshots.clone();
+            for (int i = 0; i < stores.length; i++) {
+                if (stores[i].group != locked) {
+                    throw new IllegalArgumentException("Content stores are not linked");
+                }
+                newPaths[stores[i].slot] = filePaths[i];
+                newSnapshots[stores[i].slot] = snapshots[i];
+            }
+            locked.current = new Published(newPaths, newSnapshots);
+        }
+    }
+
+    /**
+     * Reads the snapshots of several stores. Snapshots of linked stores are read from the same publication,
+     * so they always belong together.
+     *
+     * @param stores the stores to read
+     * @return the current snapshot of each store, in the same order
+     */
+    public static ContentIndex[] getAll(List<ContentStore> stores) {
+        ContentIndex[] snapshots = new ContentIndex[stores.size()];
+        Group[] groups = new Group[stores.size()];
+        Published[] publications = new Published[stores.size()];
+        for (int i = 0; i < snapshots.length; i++) {
+            ContentStore store = stores.get(i);
+            groups[i] = store.group;
+            publications[i] = groups[i].current;
+            for (int j = 0; j < i; j++) {
+                if (groups[j] == groups[i]) {
+                    publications[i] = publications[j];
+                    break;
+                }
+            }
+            snapshots[i] = publications[i].snapshots[store.slot];
+        }
+        return snapshots;
+    }
+
+    /**
+     * Publishes a new file and snapshot for one slot of a group. The caller holds the lock of the group.
+     */
+    private static void publish(Group group, int slot, String filePath, ContentIndex snapshot) {
+        Published current = group.current;
+        String[] filePaths = current.filePaths.clone();
+        ContentIndex[] snapshots = current.snapshots.clone();
+        filePaths[slot] = filePath;
+        snapshots[slot] = snapshot;
+        group.current = new Published(filePaths, snapshots);
+    }
+}
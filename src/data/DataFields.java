@@ -0,0 +1,62 @@
+package data;
+
+/**
+ * The {@code DataFields} class parses single fields of game data files, reporting every problem as an
+ * {@link InvalidDataException} that names the file and the line.
+ *
+ * This class provides static utility methods and is not intended to be instantiated.
+ */
+public class DataFields {
+
+    private DataFields() {
+    }
+
+    /**
+     * Parses a whole number that must not be smaller than a minimum.
+     *
+     * @param filePath   the path of the data file, for the error message
+     * @param lineNumber the 1-based line number, for the error message
+     * @param field      the name of the field, for the error message
+     * @param value      the text of the field; surrounding whitespace is ignored
+     * @param min        the smallest allowed value
+     * @return the parsed value
+     * @throws InvalidDataException if the field is not a number or is smaller than {@code min}
+     */
+    public static int parseInt(String filePath, int lineNumber, String field, String value, int min)
+            throws InvalidDataException {
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed < min) {
+                throw new InvalidDataException(filePath, lineNumber, field + " must be at least " + min + " but was " + parsed);
+            }
+            return parsed;
+        }
+        catch (NumberFormatException e) {
+            throw new InvalidDataException(filePath, lineNumber, field + " is not a number: " + value.trim());
+        }
+    }
+
+    /**
+     * Parses a probability between 0 and 1.
+     *
+     * @param filePath   the path of the data file, for the error message
+     * @param lineNumber the 1-based line number, for the error message
+     * @param field      the name of the field, for the error message
+     * @param value      the text of the field; surrounding whitespace is ignored
+     * @return the parsed value
+     * @throws InvalidDataException if the field is not a number or is outside of 0 to 1
+     */
+    public static double parseChance(String filePath, int lineNumber, String field, String value)
+            throws InvalidDataException {
+        try {
+            double parsed = Double.parseDouble(value.trim());
+            if (parsed < 0 || parsed > 1) {
+                throw new InvalidDataException(filePath, lineNumber, field + " must be between 0 and 1 but was " + parsed);
+            }
+            return parsed;
+        }
+        catch (NumberFormatException e) {
+            throw new InvalidDataException(filePath, lineNumber, field + " is not a number: " + value.trim());
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package data;
+
+import java.util.Arrays;
+
+/**
+ * The {@code DirtyRegionTracker} class finds the parts of the screen that changed between two frames.
+ *
+ * Every frame, the bounds of all drawn sprites are added with {@link #add}. {@link #finishFrame} compares them
+ * with the bounds of the previous frame: a sprite that was drawn at exactly the same place and size in both frames
+ * did not change, while the old and new bounds of every other sprite are dirty. The dirty area is collected on a
+ * grid of square tiles and merged into a few rectangles, horizontal runs of dirty tiles first and then identical
+ * runs of neighbouring rows.
+ *
+ * When too large a share of the tiles is dirty, or the area would need too many rectangles, a full repaint is
+ * cheaper than many small ones, and {@link #isFullRepaint} reports that instead.
+ *
+ * All storage lives in primitive arrays that are reused between frames.
+ */
+public class DirtyRegionTracker {
+
+    /** Share of dirty tiles above which the whole area is repainted */
+    public static final double DEFAULT_FULL_REPAINT_SHARE = 0.5;
+
+    /** Number of rectangles above which the whole area is repainted */
+    public static final int DEFAULT_MAX_RECTANGLES = 32;
+
+    private final int tileSize;
+    private final double fullRepaintShare;
+    private final int maxRectangles;
+
+    private int width;
+    private int height;
+    private int columns;
+    private int rows;
+    private boolean[] dirtyTiles = new boolean[0];
+    private boolean fullRepaint;
+    private boolean fullRepaintRequested = true;
+
+    /** Bounds added for the current and the previous frame, as x, y, width, height */
+    private int[] current = new int[256];
+    private int currentCount;
+    private int[] previous = new int[256];
+    private int previousCount;
+
+    /** Regions marked dirty in the current frame regardless of sprites, as x, y, width, height */
+    private int[] marked = new int[16];
+    private int markedCount;
+
+    /** Open addressing multiset of the previous frame's bounds, used to find the unchanged ones */
+    private long[] keys = new long[512];
+    private int[] counts = new int[512];
+
+    /** Frame in which each slot was last used; a slot is empty if it was not used in the current frame */
+    private int[] slotFrames = new int[512];
+    private int frame;
+
+    /** Result rectangles, as x, y, width, height */
+    private int[] rectangles = new int[4 * DEFAULT_MAX_RECTANGLES];
+    private int rectangleCount;
+
+    /** Runs of dirty tiles in the previous row and the rectangle each of them belongs to */
+    private int[] runStarts = new int[16];
+    private int[] runEnds = new int[16];
+    private int[] runRectangles = new int[16];
+
+    /**
+     * Constructs a tracker with the default thresholds.
+     *
+     * @param tileSize the edge length of a tile in pixels
+     */
+    public DirtyRegionTracker(int tileSize) {
+        this(tileSize, DEFAULT_FULL_REPAINT_SHARE, DEFAULT_MAX_RECTANGLES);
+    }
+
+    /**
+     * Constructs a tracker.
+     *
+     * @param tileSize         the edge length of a tile in pixels
+     * @param fullRepaintShare the share of dirty tiles above which the whole area is repainted
+     * @param maxRectangles    the number of rectangles above which the whole area is repainted
+     */
+    public DirtyRegionTracker(int tileSize, double fullRepaintShare, int maxRectangles) {
+        this.tileSize = tileSize;
+        this.fullRepaintShare = fullRepaintShare;
+        this.maxRectangles = maxRectangles;
+    }
+
+    /**
+     * Starts collecting the bounds of a new frame. A change of the area size makes the frame a full repaint.
+     *
+     * @param areaWidth  the width of the painted area
+     * @param areaHeight the height of the painted area
+     */
+    public void beginFrame(int areaWidth, int areaHeight) {
+        int[] swap = previous;
+        previous = current;
+        current = swap;
+        previousCount = currentCount;
+        currentCount = 0;
+        markedCount = 0;
+        fullRepaint = fullRepaintRequested;
+        fullRepaintRequested = false;
+
+        if (areaWidth != width || areaHeight != height) {
+            width = areaWidth;
+            height = areaHeight;
+            columns = Math.max(1, (width + tileSize - 1) / tileSize);
+            rows = Math.max(1, (height + tileSize - 1) / tileSize);
+            dirtyTiles = new boolean[columns * rows];
+            fullRepaint = true;
+        }
+    }
+
+    /**
+     * Adds the bounds of a sprite drawn in the current frame.
+     *
+     * @param x      the x-coordinate of the top-left corner
+     * @param y      the y-coordinate of the top-left corner
+     * @param width  the width
+     * @param height the height
+     */
+    public void add(int x, int y, int width, int height) {
+        if (currentCount * 4 == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        int base = currentCount * 4;
+        current[base] = x;
+        current[base + 1] = y;
+        current[base + 2] = width;
+        current[base + 3] = height;
+        currentCount++;
+    }
+
+    /**
+     * Marks a region of the current frame as dirty, for changes that are not sprites, such as a HUD.
+     *
+     * @param x      the x-coordinate of the top-left corner
+     * @param y      the y-coordinate of the top-left corner
+     * @param width  the width
+     * @param height the height
+     */
+    public void addDirty(int x, int y, int width, int height) {
+        if (markedCount * 4 == marked.length) {
+            marked = Arrays.copyOf(marked, marked.length * 2);
+        }
+        int base = markedCount * 4;
+        marked[base] = x;
+        marked[base + 1] = y;
+        marked[base + 2] = width;
+        marked[base + 3] = height;
+        markedCount++;
+    }
+
+    /**
+     * Makes the next frame a full repaint, for changes that are not covered by sprite bounds.
+     */
+    public void markAll() {
+        fullRepaintRequested = true;
+    }
+
+    /**
+     * Computes the dirty area of the current frame.
+     */
+    public void finishFrame() {
+        rectangleCount = 0;
+        if (fullRepaint) {
+            return;
+        }
+        Arrays.fill(dirtyTiles, false);
+
+        buildPreviousSet();
+        for (int i = 0; i < currentCount; i++) {
+            if (!takeFromPreviousSet(current, i)) {
+                markTiles(current, i);
+            }
+        }
+        // Whatever is left of the previous frame has moved away or disappeared.
+        for (int i = 0; i < previousCount; i++) {
+            if (takeFromPreviousSet(previous, i)) {
+                markTiles(previous, i);
+            }
+        }
+        for (int i = 0; i < markedCount; i++) {
+            markTiles(marked, i);
+        }
+
+        int dirtyCount = 0;
+        for (boolean dirty : dirtyTiles) {
+            if (dirty) {
+                dirtyCount++;
+            }
+        }
+        if (dirtyCount > dirtyTiles.length * fullRepaintShare || !mergeTiles()) {
+            fullRepaint = true;
+            rectangleCount = 0;
+        }
+    }
+
+    /**
+     * @return {@code true} if the whole area has to be repainted in this frame
+     */
+    public boolean isFullRepaint() {
+        return fullRepaint;
+    }
+
+    /**
+     * @return the number of dirty rectangles of the current frame, 0 for a full repaint or an unchanged frame
+     */
+    public int getRectangleCount() {
+        return rectangleCount;
+    }
+
+    /**
+     * @param index the rectangle, between 0 and {@link #getRectangleCount()}
+     * @return the x-coordinate of the rectangle
+     */
+    public int getRectangleX(int index) {
+        return rectangles[index * 4];
+    }
+
+    /**
+     * @param index the rectangle, between 0 and {@link #getRectangleCount()}
+     * @return the y-coordinate of the rectangle
+     */
+    public int getRectangleY(int index) {
+        return rectangles[index * 4 + 1];
+    }
+
+    /**
+     * @param index the rectangle, between 0 and {@link #getRectangleCount()}
+     * @return the width of the rectangle
+     */
+    public int getRectangleWidth(int index) {
+        return rectangles[index * 4 + 2];
+    }
+
+    /**
+     * @param index the rectangle, between 0 and {@link #getRectangleCount()}
+     * @return the height of the rectangle
+     */
+    public int getRectangleHeight(int index) {
+        return rectangles[index * 4 + 3];
+    }
+
+    /**
+     * Counts every bound of the previous frame into the multiset.
+     */
+    private void buildPreviousSet() {
+        int capacity = keys.length;
+        while (capacity < previousCount * 2) {
+            capacity *= 2;
+        }
+        if (capacity != keys.length) {
+            keys = new long[capacity];
+            counts = new int[capacity];
+            slotFrames = new int[capacity];
+        }
+        frame++;
+
+        for (int i = 0; i < previousCount; i++) {
+            long key = keyOf(previous, i);
+            int slot = slotOf(key);
+            if (slotFrames[slot] != frame) {
+                slotFrames[slot] = frame;
+                keys[slot] = key;
+                counts[slot] = 0;
+            }
+            counts[slot]++;
+        }
+    }
+
+    /**
+     * Removes one occurrence of a bound from the multiset.
+     *
+     * @return {@code true} if the bound was in it
+     */
+    private boolean takeFromPreviousSet(int[] bounds, int index) {
+        int slot = slotOf(keyOf(bounds, index));
+        if (slotFrames[slot] != frame || counts[slot] == 0) {
+            return false;
+        }
+        counts[slot]--;
+        return true;
+    }
+
+    /**
+     * @return the slot holding the key, or the empty slot where it belongs
+     */
+    private int slotOf(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) (key * 0x9E3779B97F4A7C15L >>> 40) & mask;
+        // Slots keep their key for the whole frame, even when their count drops to 0.
+        while (slotFrames[slot] == frame && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * @return the bound packed into one value, 16 bits per component
+     */
+    private static long keyOf(int[] bounds, int index) {
+        int base = index * 4;
+        return (bounds[base] & 0xFFFFL) << 48 | (bounds[base + 1] & 0xFFFFL) << 32
+                | (bounds[base + 2] & 0xFFFFL) << 16 | (bounds[base + 3] & 0xFFFFL);
+    }
+
+    /**
+     * Marks every tile overlapped by a bound as dirty, ignoring the parts outside of the area.
+     */
+    private void markTiles(int[] bounds, int index) {
+        int base = index * 4;
+        int minX = Math.max(0, bounds[base]);
+        int minY = Math.max(0, bounds[base + 1]);
+        int maxX = Math.min(width, bounds[base] + bounds[base + 2]) - 1;
+        int maxY = Math.min(height, bounds[base + 1] + bounds[base + 3]) - 1;
+        if (maxX < minX || maxY < minY) {
+            return;
+        }
+        for (int row = minY / tileSize; row <= maxY / tileSize; row++) {
+            int rowStart = row * columns;
+            for (int column = minX / tileSize; column <= maxX / tileSize; column++) {
+                dirtyTiles[rowStart + column] = true;
+            }
+        }
+    }
+
+    /**
+     * Merges the dirty tiles into rectangles: every horizontal run of dirty tiles extends the rectangle of an
+     * identical run in the row above, or starts a new rectangle.
+     *
+     * @return {@code false} if more than the maximum number of rectangles would be needed
+     */
+    private boolean mergeTiles() {
+        int previousRuns = 0;
+        for (int row = 0; row < rows; row++) {
+            int rowStart = row * columns;
+            int runs = 0;
+            int previousRun = 0;
+            int column = 0;
+            while (column < columns) {
+                if (!dirtyTiles[rowStart + column]) {
+                    column++;
+                    continue;
+                }
+                int runStart = column;
+                while (column < columns && dirtyTiles[rowStart + column]) {
+                    column++;
+                }
+
+                // Runs of both rows are sorted by start, so the matching run of the row above is found by walking forward.
+                while (previousRun < previousRuns && runStarts[previousRun] < runStart) {
+                    previousRun++;
+                }
+                int rectangle;
+                if (previousRun < previousRuns && runStarts[previousRun] == runStart && runEnds[previousRun] == column) {
+                    rectangle = runRectangles[previousRun];
+                    rectangles[rectangle * 4 + 3] = Math.min(height, (row + 1) * tileSize) - rectangles[rectangle * 4 + 1];
+                }
+                else {
+                    if (rectangleCount == maxRectangles) {
+                        return false;
+                    }
+                    rectangle = rectangleCount++;
+                    if (rectangles.length < rectangleCount * 4) {
+                        rectangles = Arrays.copyOf(rectangles, rectangleCount * 8);
+                    }
+                    int x = runStart * tileSize;
+                    int y = row * tileSize;
+                    rectangles[rectangle * 4] = x;
+                    rectangles[rectangle * 4 + 1] = y;
+                    rectangles[rectangle * 4 + 2] = Math.min(width, column * tileSize) - x;
+                    rectangles[rectangle * 4 + 3] = Math.min(height, y + tileSize) - y;
+                }
+
+                // This row's runs are collected behind the previous row's, then moved to the front.
+                int slot = previousRuns + runs;
+                if (runStarts.length <= slot) {
+                    runStarts = Arrays.copyOf(runStarts, slot * 2);
+                    runEnds = Arrays.copyOf(runEnds, slot * 2);
+                    runRectangles = Arrays.copyOf(runRectangles, slot * 2);
+                }
+                runStarts[slot] = runStart;
+                runEnds[slot] = column;
+                runRectangles[slot] = rectangle;
+                runs++;
+            }
+            System.arraycopy(runStarts, previousRuns, runStarts, 0, runs);
+            System.arraycopy(runEnds, previousRuns, runEnds, 0, runs);
+            System.arraycopy(runRectangles, previousRuns, runRectangles, 0, runs);
+            previousRuns = runs;
+        }
+        return true;
+    }
+}
@@ -1,7 +1,6 @@
 package data;
 
 import java.awt.Image;
-import java.io.File;
 import java.io.IOException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
@@ -10,66 +9,128 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-
-import javax.imageio.ImageIO;
-import javax.swing.JOptionPane;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * The {@code EnemyAvatar} class is responsible for loading and providing 
- * shuffled avatar images from a specified directory. Each avatar image can 
- * only be used once until the internal list is exhausted.
+ * The {@code EnemyAvatar} class hands out shuffled avatar images from a specified directory.
+ * Every avatar is used once per cycle; when all have been used, a new shuffled cycle starts,
+ * so there is always an avatar to give out.
+ * 
+ * This is typically used to assign avatars to enemy characters in the game,
+ * ensuring visual variety and thematic consistency.
  * 
- * This is typically used to assign unique avatars to enemy characters 
- * in the game, ensuring visual variety and thematic consistency.
+ * The images themselves are shared by all games: each folder is listed once per process and each
+ * file is decoded once by {@link SpriteCache}, which may release sprites under memory pressure and
+ * decode them again when needed. Creating a pool for a new game therefore decodes nothing.
  */
 public class EnemyAvatar {
 
-    private List<String> avatarPaths;
+    /** Sorted image paths of every folder listed so far, shared by all pools */
+    private static final Map<String, List<String>> pathsByFolder = new ConcurrentHashMap<>();
+
+    private final List<String> avatarPaths;
+    private final RandomSource random;
+    private final int width;
+    private final int height;
+
+    /** Shuffled positions in avatarPaths for the current cycle, and the next one to hand out */
+    private final int[] cycle;
+    private int cursor;
 
     /**
-     * Constructs a new {@code EnemyAvatar} loader for the specified folder path.
+     * Constructs a new {@code EnemyAvatar} pool for the specified folder path.
      * 
      * @param folderPath The path to the folder containing avatar images (JPG or JPEG).
+     * @param random     The random stream used to shuffle the avatars.
+     * @param width      The width avatars are scaled to.
+     * @param height     The height avatars are scaled to.
      * 
-     * @throws Exception if the file cannot be found
+     * @throws Exception if the folder cannot be listed
      */
-    public EnemyAvatar(String folderPath) throws Exception {
-        avatarPaths = new ArrayList<>();
-        Path path = Paths.get(folderPath);
+    public EnemyAvatar(String folderPath, RandomSource random, int width, int height) throws Exception {
+        this.avatarPaths = pathsOf(folderPath);
+        this.random = random;
+        this.width = width;
+        this.height = height;
 
-        if (Files.exists(path) && Files.isDirectory(path)) {
-        	DirectoryStream<Path> directoryStream = Files.newDirectoryStream(path);
-        	for (Path file : directoryStream) {
-                
-            	String fileName = file.getFileName().toString().toLowerCase();                
-                if (fileName.endsWith(".jpg") || fileName.endsWith(".jpeg")) {
-                    avatarPaths.add(file.toString());
-                }
-            }
+        cycle = new int[avatarPaths.size()];
+        for (int i = 0; i < cycle.length; i++) {
+            cycle[i] = i;
         }
-
-        Collections.shuffle(avatarPaths);
+        shuffle();
     }
 
     /**
-     * Retrieves and removes the next available avatar image from the internal list.
+     * Retrieves the next avatar image of the current cycle, starting a new cycle when it is used up.
      * 
-     * @return A loaded {@code Image} object from the shuffled avatar list,
-     *         or {@code null} if loading fails or list is empty.
+     * @return A shared avatar sprite from the shuffled avatar list, scaled to the enemy size,
+     *         or {@code null} only if the folder has no readable images.
      */
     public Image getAvatarPath() {
-        if (avatarPaths.isEmpty()) {
-            System.err.println("No more avatar images available.");
-            return null;
+        // Skip unreadable files, but give up after trying every file once.
+        for (int attempt = 0; attempt < cycle.length; attempt++) {
+            if (cursor == cycle.length) {
+                int previous = cycle[cycle.length - 1];
+                shuffle();
+                // Avoid showing the same avatar twice in a row across cycles.
+                if (cycle.length > 1 && cycle[0] == previous) {
+                    int other = 1 + random.nextInt(cycle.length - 1);
+                    cycle[0] = cycle[other];
+                    cycle[other] = previous;
+                }
+            }
+
+            String avatarPath = avatarPaths.get(cycle[cursor++]);
+            try {
+                return SpriteCache.get(avatarPath, width, height);
+            }
+            catch (IOException e) {
+                Logger.log("Avatar image cannot load: " + avatarPath + ": " + e.getMessage());
+            }
         }
+        return null;
+    }
 
-        String avatarPath = avatarPaths.remove(0);
+    /**
+     * Shuffles the cycle with the session stream and starts it from the beginning.
+     */
+    private void shuffle() {
+        for (int i = cycle.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = cycle[i];
+            cycle[i] = cycle[j];
+            cycle[j] = swap;
+        }
+        cursor = 0;
+    }
+
+    /**
+     * @return the sorted JPG and JPEG paths of a folder, listing it only the first time
+     */
+    private static List<String> pathsOf(String folderPath) throws IOException {
+        List<String> paths = pathsByFolder.get(folderPath);
+        if (paths != null) {
+            return paths;
+        }
 
-        try {
-            return ImageIO.read(new File(avatarPath));
-        } 
-        catch (IOException e) {
-            return null;
+        paths = new ArrayList<>();
+        Path path = Paths.get(folderPath);
+        if (Files.exists(path) && Files.isDirectory(path)) {
+            try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(path)) {
+                for (Path file : directoryStream) {
+                    String fileName = file.getFileName().toString().toLowerCase();
+                    if (fileName.endsWith(".jpg") || fileName.endsWith(".jpeg")) {
+                        paths.add(file.toString());
+                    }
+                }
+            }
         }
+
+        // Directory listing order is not stable across platforms, so sort before shuffling with the session stream.
+        Collections.sort(paths);
+        paths = Collections.unmodifiableList(paths);
+        pathsByFolder.putIfAbsent(folderPath, paths);
+        return paths;
     }
 }
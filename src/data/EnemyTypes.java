@@ -0,0 +1,229 @@
+package data;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Scanner;
+
+/**
+ * The {@code EnemyTypes} class is the registry of all enemy archetypes, loaded from {@code enemies.txt}.
+ *
+ * Every archetype gets a dense integer type id in file order. All per-type parameters are stored in
+ * parallel arrays indexed by that id, so an enemy only carries its type id and every parameter lookup
+ * is a single array access. Adding a new enemy type is a change to the data file only.
+ *
+ * This class provides static utility methods and is not intended to be instantiated.
+ */
+public class EnemyTypes {
+
+    /** The file archetypes are loaded from */
+    public static final String FILE_PATH = "data/enemies.txt";
+
+    private static final Map<String, Integer> idsByName = new HashMap<>();
+
+    private static String[] names = new String[0];
+    private static int[] speeds = new int[0];
+    private static double[] infoChances = new double[0];
+    private static double[] chaseChances = new double[0];
+    private static int[] decisionMillis = new int[0];
+    private static int[] infoScores = new int[0];
+    private static int[] questionDamages = new int[0];
+    private static int[] contentLevels = new int[0];
+    private static String[] avatarFolders = new String[0];
+
+    private EnemyTypes() {
+    }
+
+    /**
+     * Loads all archetypes from {@code enemies.txt}, replacing any previously loaded table.
+     *
+     * The expected format is one archetype per line:
+     *
+     * name,speed,infoChance,chaseChance,decisionMillis,infoScore,questionDamage,contentLevel,avatarFolder
+     *
+     * Empty lines and lines starting with {@code #} are ignored.
+     *
+     * @throws Exception if the file cannot be found or a line is invalid
+     */
+    public static void load() throws Exception {
+        load(FILE_PATH);
+    }
+
+    /**
+     * Loads all archetypes from the given file, replacing any previously loaded table.
+     *
+     * @param filePath path of the archetype file
+     * @throws Exception if the file cannot be found or a line is invalid
+     */
+    public static synchronized void load(String filePath) throws Exception {
+        Map<String, Integer> newIds = new HashMap<>();
+        int count = 0;
+        String[] newNames = new String[8];
+        int[] newSpeeds = new int[8];
+        double[] newInfoChances = new double[8];
+        double[] newChaseChances = new double[8];
+        int[] newDecisionMillis = new int[8];
+        int[] newInfoScores = new int[8];
+        int[] newQuestionDamages = new int[8];
+        int[] newContentLevels = new int[8];
+        String[] newAvatarFolders = new String[8];
+
+        try (Scanner scanner = new Scanner(new File(filePath), "UTF-8")) {
+            int lineNumber = 0;
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine().trim();
+                lineNumber++;
+
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                String[] parts = line.split(",");
+                if (parts.length != 9) {
+                    throw new InvalidDataException(filePath, lineNumber, "expected 9 fields but found " + parts.length);
+                }
+
+                String name = parts[0].trim();
+                if (newIds.containsKey(name)) {
+                    throw new InvalidDataException(filePath, lineNumber, "duplicate enemy type " + name);
+                }
+
+                if (count == newNames.length) {
+                    int capacity = count * 2;
+                    newNames = Arrays.copyOf(newNames, capacity);
+                    newSpeeds = Arrays.copyOf(newSpeeds, capacity);
+                    newInfoChances = Arrays.copyOf(newInfoChances, capacity);
+                    newChaseChances = Arrays.copyOf(newChaseChances, capacity);
+                    newDecisionMillis = Arrays.copyOf(newDecisionMillis, capacity);
+                    newInfoScores = Arrays.copyOf(newInfoScores, capacity);
+                    newQuestionDamages = Arrays.copyOf(newQuestionDamages, capacity);
+                    newContentLevels = Arrays.copyOf(newContentLevels, capacity);
+                    newAvatarFolders = Arrays.copyOf(newAvatarFolders, capacity);
+                }
+
+                newNames[count] = name;
+                newSpeeds[count] = DataFields.parseInt(filePath, lineNumber, "speed", parts[1], 1);
+                newInfoChances[count] = DataFields.parseChance(filePath, lineNumber, "infoChance", parts[2]);
+                newChaseChances[count] = DataFields.parseChance(filePath, lineNumber, "chaseChance", parts[3]);
+                newDecisionMillis[count] = DataFields.parseInt(filePath, lineNumber, "decisionMillis", parts[4], 1);
+                newInfoScores[count] = DataFields.parseInt(filePath, lineNumber, "infoScore", parts[5], 0);
+                newQuestionDamages[count] = DataFields.parseInt(filePath, lineNumber, "questionDamage", parts[6], 0);
+                newContentLevels[count] = DataFields.parseInt(filePath, lineNumber, "contentLevel", parts[7], 1);
+                newAvatarFolders[count] = parts[8].trim();
+                newIds.put(name, count);
+                count++;
+            }
+        }
+
+        if (count == 0) {
+            throw new InvalidDataException(filePath + " does not define any enemy type.");
+        }
+
+        names = Arrays.copyOf(newNames, count);
+        speeds = Arrays.copyOf(newSpeeds, count);
+        infoChances = Arrays.copyOf(newInfoChances, count);
+        chaseChances = Arrays.copyOf(newChaseChances, count);
+        decisionMillis = Arrays.copyOf(newDecisionMillis, count);
+        infoScores = Arrays.copyOf(newInfoScores, count);
+        questionDamages = Arrays.copyOf(newQuestionDamages, count);
+        contentLevels = Arrays.copyOf(newContentLevels, count);
+        avatarFolders = Arrays.copyOf(newAvatarFolders, count);
+        idsByName.clear();
+        idsByName.putAll(newIds);
+    }
+
+    /**
+     * Returns the type id of the archetype with the given name.
+     *
+     * @param name the archetype name, as written in the data file
+     * @return the dense type id
+     * @throws IllegalArgumentException if no archetype has this name
+     */
+    public static int idOf(String name) {
+        Integer id = idsByName.get(name);
+        if (id == null) {
+            throw new IllegalArgumentException("Unknown enemy type: " + name);
+        }
+        return id;
+    }
+
+    /**
+     * @return the number of loaded archetypes; valid type ids are 0 to count - 1
+     */
+    public static int getCount() {
+        return names.length;
+    }
+
+    /**
+     * @param typeId the type id
+     * @return the archetype name
+     */
+    public static String getName(int typeId) {
+        return names[typeId];
+    }
+
+    /**
+     * @param typeId the type id
+     * @return movement and shot speed in pixels per update
+     */
+    public static int getSpeed(int typeId) {
+        return speeds[typeId];
+    }
+
+    /**
+     * @param typeId the type id
+     * @return the probability that a shot is an info box instead of a question box
+     */
+    public static double getInfoChance(int typeId) {
+        return infoChances[typeId];
+    }
+
+    /**
+     * @param typeId the type id
+     * @return the probability of following the player at each movement decision; 0 means always bouncing
+     */
+    public static double getChaseChance(int typeId) {
+        return chaseChances[typeId];
+    }
+
+    /**
+     * @param typeId the type id
+     * @return the delay in milliseconds between movement decisions
+     */
+    public static int getDecisionMillis(int typeId) {
+        return decisionMillis[typeId];
+    }
+
+    /**
+     * @param typeId the type id
+     * @return the score gained when collecting an info box of this type
+     */
+    public static int getInfoScore(int typeId) {
+        return infoScores[typeId];
+    }
+
+    /**
+     * @param typeId the type id
+     * @return the damage taken when hit by a question box of this type
+     */
+    public static int getQuestionDamage(int typeId) {
+        return questionDamages[typeId];
+    }
+
+    /**
+     * @param typeId the type id
+     * @return the level of the questions and infos this type shoots
+     */
+    public static int getContentLevel(int typeId) {
+        return contentLevels[typeId];
+    }
+
+    /**
+     * @param typeId the type id
+     * @return the folder that contains the avatar images of this type
+     */
+    public static String getAvatarFolder(int typeId) {
+        return avatarFolders[typeId];
+    }
+}
@@ -0,0 +1,456 @@
+package data;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * The {@code FrameRecorder} class records rendered frames to disk without slowing down the game loop.
+ *
+ * The game draws each frame into an image taken from a small pool with {@link #acquire()} and hands it over with
+ * {@link #submit}. A background thread encodes the frames and puts the images back into the pool. When the encoder
+ * falls behind and the pool is empty, {@link #acquire()} returns {@code null} and the frame is dropped, so the game
+ * never waits for the disk.
+ *
+ * Two formats are supported: a folder with one PNG file per frame, named by frame number, and a Motion JPEG AVI
+ * file that common players and {@code ffmpeg} can read. In the AVI file, a dropped frame is an empty chunk, which
+ * players show by repeating the previous frame, so the recording keeps the timing of the game.
+ *
+ * {@link #close()} does not wait for the encoder either: the encoder thread writes the remaining frames, finishes
+ * the file and logs the result on its own. Headless tools that exit right after recording wait with
+ * {@link #awaitFinished()}.
+ *
+ * Nothing here needs a screen, so recording also works in headless runs.
+ */
+public class FrameRecorder {
+
+    /** Output formats */
+    public static final int PNG_SEQUENCE = 0;
+    public static final int MJPEG_AVI = 1;
+
+    /** Number of frame images shared between the game and the encoder */
+    public static final int DEFAULT_POOL_SIZE = 4;
+
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private final Path output;
+    private final int format;
+    private final int width;
+    private final int height;
+    private final int framesPerSecond;
+
+    /** Images free for drawing, and drawn images waiting for the encoder with their frame numbers */
+    private final BlockingQueue<BufferedImage> freeImages;
+    private final BlockingQueue<BufferedImage> pendingImages;
+    private final BlockingQueue<Integer> pendingNumbers;
+
+    private final Thread encoder;
+    private volatile boolean closing;
+    private volatile IOException failure;
+
+    /**
+     * Frame number of the next frame, and the frames dropped so far. Written by the game thread only; the encoder
+     * reads them once it has seen {@code closing}, after the game thread's last write.
+     */
+    private int nextFrame;
+    private int droppedFrames;
+
+    /** Encoder state: frames written, AVI file and its chunk index */
+    private volatile int writtenFrames;
+    private FileChannel avi;
+    private long moviStart;
+    private int[] chunkOffsets = new int[1024];
+    private int[] chunkSizes = new int[1024];
+    private int chunkCount;
+    private int largestChunk;
+    private final ByteArrayOutputStream jpegBytes = new ByteArrayOutputStream();
+    private ImageWriter jpegWriter;
+
+    /**
+     * Starts a recording.
+     *
+     * @param output          the folder of a PNG sequence, or the AVI file
+     * @param format          {@link #PNG_SEQUENCE} or {@link #MJPEG_AVI}
+     * @param width           the frame width
+     * @param height          the frame height
+     * @param framesPerSecond the rate at which frames are submitted
+     * @param poolSize        the number of frame images
+     * @throws IOException if the output cannot be created
+     */
+    public FrameRecorder(String output, int format, int width, int height, int framesPerSecond, int poolSize) throws IOException {
+        this.output = Paths.get(output);
+        this.format = format;
+        this.width = width;
+        this.height = height;
+        this.framesPerSecond = framesPerSecond;
+
+        freeImages = new ArrayBlockingQueue<>(poolSize);
+        pendingImages = new ArrayBlockingQueue<>(poolSize);
+        pendingNumbers = new ArrayBlockingQueue<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            freeImages.add(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB));
+        }
+
+        if (format == PNG_SEQUENCE) {
+            Files.createDirectories(this.output);
+        }
+        else {
+            Path parent = this.output.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            avi = FileChannel.open(this.output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            writeAviHeader();
+            Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+            if (!writers.hasNext()) {
+                avi.close();
+                throw new IOException("No JPEG encoder available");
+            }
+            jpegWriter = writers.next();
+        }
+
+        encoder = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                encodeLoop();
+            }
+        }, "frame-recorder");
+        encoder.setDaemon(true);
+        encoder.start();
+    }
+
+    /**
+     * Returns a free image to draw the next frame into, or {@code null} if the encoder is behind and the frame
+     * has to be dropped. Every call counts as one frame.
+     *
+     * @return the image, or {@code null}
+     */
+    public BufferedImage acquire() {
+        BufferedImage image = freeImages.poll();
+        if (image == null) {
+            droppedFrames++;
+            nextFrame++;
+        }
+        return image;
+    }
+
+    /**
+     * Hands a drawn image from {@link #acquire()} to the encoder.
+     *
+     * @param image the drawn frame
+     */
+    public void submit(BufferedImage image) {
+        // Both queues are as large as the pool, so neither call can fail.
+        pendingNumbers.add(nextFrame++);
+        pendingImages.add(image);
+    }
+
+    /**
+     * @return the width of the frames
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return the height of the frames
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return the number of frames encoded so far
+     */
+    public int getWrittenFrames() {
+        return writtenFrames;
+    }
+
+    /**
+     * @return the number of frames dropped so far because the encoder was behind
+     */
+    public int getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    /**
+     * Stops the recording without waiting for the encoder. The encoder thread writes the remaining frames,
+     * finishes the file and logs the result. No frames may be acquired or submitted afterwards.
+     */
+    public void close() {
+        closing = true;
+    }
+
+    /**
+     * Waits until the encoder thread has finished the file after {@link #close()}.
+     *
+     * @throws IOException if a frame or the file could not be written
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public void awaitFinished() throws IOException, InterruptedException {
+        encoder.join();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Encodes frames until the recorder is closed and all pending frames are written, then finishes the file.
+     */
+    private void encodeLoop() {
+        // The thread is never interrupted: an interrupt would close the AVI file channel in the middle of a write.
+        while (true) {
+            BufferedImage image;
+            try {
+                image = pendingImages.poll(50, TimeUnit.MILLISECONDS);
+            }
+            catch (InterruptedException e) {
+                break;
+            }
+            if (image == null) {
+                // A frame submitted just before closing may have arrived after the poll timed out.
+                if (closing && pendingImages.isEmpty()) {
+                    break;
+                }
+                continue;
+            }
+
+            int number = pendingNumbers.poll();
+            try {
+                if (failure == null) {
+                    encode(image, number);
+                    writtenFrames++;
+                }
+            }
+            catch (IOException e) {
+                failure = e;
+            }
+            freeImages.add(image);
+        }
+        finish();
+    }
+
+    /**
+     * Finishes the AVI file, if any, and logs the result of the recording. Runs on the encoder thread.
+     */
+    private void finish() {
+        if (avi != null) {
+            try {
+                // Frames dropped at the very end still count for the timing.
+                while (failure == null && chunkCount < nextFrame) {
+                    writeChunk(null, 0);
+                }
+                if (failure == null) {
+                    finishAvi();
+                }
+            }
+            catch (IOException e) {
+                failure = e;
+            }
+            finally {
+                try {
+                    avi.close();
+                }
+                catch (IOException e) {
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+                jpegWriter.dispose();
+            }
+        }
+
+        if (failure != null) {
+            Logger.log("Recording failed: " + output + ": " + failure.getMessage());
+        }
+        else {
+            Logger.log("Recording finished: " + output + ": " + writtenFrames + " frames written, "
+                    + droppedFrames + " dropped.");
+        }
+    }
+
+    /**
+     * Writes one frame, after empty AVI chunks for any frames dropped before it.
+     */
+    private void encode(BufferedImage image, int number) throws IOException {
+        if (format == PNG_SEQUENCE) {
+            ImageIO.write(image, "png", new File(output.toFile(), String.format("frame-%06d.png", number)));
+            return;
+        }
+
+        while (chunkCount < number) {
+            writeChunk(null, 0);
+        }
+        jpegBytes.reset();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(jpegBytes)) {
+            ImageWriteParam param = jpegWriter.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            jpegWriter.setOutput(stream);
+            jpegWriter.write(null, new IIOImage(image, null, null), param);
+        }
+        writeChunk(jpegBytes.toByteArray(), jpegBytes.size());
+    }
+
+    /**
+     * Writes the RIFF header, the stream headers and the start of the movie list. Sizes and frame counts are
+     * filled in by {@link #finishAvi()}.
+     */
+    private void writeAviHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(224).order(ByteOrder.LITTLE_ENDIAN);
+        putFourCC(header, "RIFF");
+        header.putInt(0);
+        putFourCC(header, "AVI ");
+
+        putFourCC(header, "LIST");
+        header.putInt(192);
+        putFourCC(header, "hdrl");
+
+        putFourCC(header, "avih");
+        header.putInt(56);
+        header.putInt(1_000_000 / framesPerSecond);
+        header.putInt(0);
+        header.putInt(0);
+        header.putInt(0x10);
+        header.putInt(0);
+        header.putInt(0);
+        header.putInt(1);
+        header.putInt(0);
+        header.putInt(width);
+        header.putInt(height);
+        header.put(new byte[16]);
+
+        putFourCC(header, "LIST");
+        header.putInt(116);
+        putFourCC(header, "strl");
+
+        putFourCC(header, "strh");
+        header.putInt(56);
+        putFourCC(header, "vids");
+        putFourCC(header, "MJPG");
+        header.putInt(0);
+        header.putInt(0);
+        header.putInt(0);
+        header.putInt(1);
+        header.putInt(framesPerSecond);
+        header.putInt(0);
+        header.putInt(0);
+        header.putInt(0);
+        header.putInt(-1);
+        header.putInt(0);
+        header.putShort((short) 0);
+        header.putShort((short) 0);
+        header.putShort((short) width);
+        header.putShort((short) height);
+
+        putFourCC(header, "strf");
+        header.putInt(40);
+        header.putInt(40);
+        header.putInt(width);
+        header.putInt(height);
+        header.putShort((short) 1);
+        header.putShort((short) 24);
+        putFourCC(header, "MJPG");
+        header.putInt(width * height * 3);
+        header.putInt(0);
+        header.putInt(0);
+        header.putInt(0);
+        header.putInt(0);
+
+        putFourCC(header, "LIST");
+        header.putInt(0);
+        moviStart = header.position();
+        putFourCC(header, "movi");
+
+        header.flip();
+        writeFully(header, 0);
+    }
+
+    /**
+     * Appends a video chunk to the movie list and records it in the index. An empty chunk repeats the previous frame.
+     */
+    private void writeChunk(byte[] data, int length) throws IOException {
+        long position = avi.size();
+        ByteBuffer chunk = ByteBuffer.allocate(8 + length + (length & 1)).order(ByteOrder.LITTLE_ENDIAN);
+        putFourCC(chunk, "00dc");
+        chunk.putInt(length);
+        if (length > 0) {
+            chunk.put(data, 0, length);
+        }
+        chunk.position(chunk.limit());
+        chunk.flip();
+        writeFully(chunk, position);
+
+        if (chunkCount == chunkOffsets.length) {
+            chunkOffsets = Arrays.copyOf(chunkOffsets, chunkCount * 2);
+            chunkSizes = Arrays.copyOf(chunkSizes, chunkCount * 2);
+        }
+        chunkOffsets[chunkCount] = (int) (position - moviStart);
+        chunkSizes[chunkCount] = length;
+        chunkCount++;
+        largestChunk = Math.max(largestChunk, length);
+    }
+
+    /**
+     * Appends the index and fills in the sizes and frame counts of the headers.
+     */
+    private void finishAvi() throws IOException {
+        long moviEnd = avi.size();
+        ByteBuffer index = ByteBuffer.allocate(8 + 16 * chunkCount).order(ByteOrder.LITTLE_ENDIAN);
+        putFourCC(index, "idx1");
+        index.putInt(16 * chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            putFourCC(index, "00dc");
+            index.putInt(chunkSizes[i] > 0 ? 0x10 : 0);
+            index.putInt(chunkOffsets[i]);
+            index.putInt(chunkSizes[i]);
+        }
+        index.flip();
+        writeFully(index, moviEnd);
+
+        patchInt(4, (int) (avi.size() - 8));
+        patchInt(48, chunkCount);
+        patchInt(60, largestChunk + 8);
+        patchInt(140, chunkCount);
+        patchInt(144, largestChunk + 8);
+        patchInt(moviStart - 4, (int) (moviEnd - moviStart));
+    }
+
+    private void patchInt(long position, int value) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(value);
+        buffer.flip();
+        writeFully(buffer, position);
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += avi.write(buffer, position);
+        }
+    }
+
+    private static void putFourCC(ByteBuffer buffer, String code) {
+        buffer.put(code.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -1,13 +1,5 @@
 package data;
 
-import java.io.File;
-import java.security.SecureRandom;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Scanner;
-
-import javax.swing.JOptionPane;
-
 /**
  * The {@code InfoManager} class is responsible for loading and providing
  * educational information strings (called "infos") used in the game.
@@ -17,15 +9,14 @@ import javax.swing.JOptionPane;
  */
 public class InfoManager {
 
-    private final List<String> level1Infos = new ArrayList<>();
-    private final List<String> level2Infos = new ArrayList<>();
-    private final List<String> level3Infos = new ArrayList<>();
-    
-    private static final SecureRandom RANDOM = new SecureRandom();
+    /** The file infos are loaded from */
+    public static final String FILE_PATH = "data/info.txt";
+
+    private final ContentStore infos = new ContentStore(FILE_PATH);
 
     /**
      * Loads information entries from the {@code info.txt} file and distributes
-     * them into level-specific lists.
+     * them into levels.
      * 
      * The expected file format should have lines starting with:
      * 
@@ -34,51 +25,32 @@ public class InfoManager {
      * [Level 3] Advanced theory...
      * 
      * 
-     * Lines that do not follow this format are ignored.
+     * Lines that do not follow this format are ignored. Any number of levels is supported.
+     * See {@link ContentIndex} for the storage format.
+     * If an up-to-date {@link ContentPack} of the file exists, it is mapped instead of parsing the text.
      * 
      * @throws Exception if the file cannot be found
      */
     public void loadInfos() throws Exception {
-    	Scanner scanner = new Scanner(new File("data/info.txt"));
-    	while (scanner.hasNextLine()) {
-            String line = scanner.nextLine();
-
-            if (line.startsWith("[Level 1]")) {
-                level1Infos.add(line.substring(10).trim());
-            } 
-            else if (line.startsWith("[Level 2]")) {
-                level2Infos.add(line.substring(10).trim());
-            } 
-            else if (line.startsWith("[Level 3]")) {
-                level3Infos.add(line.substring(10).trim());
-            }
-        }
+        infos.reload();
     }
 
     /**
-     * Returns a random info string based on the given level.
+     * Creates a sampler that deals out infos for one game session without repetition.
      * 
-     * @param level The level (1, 2, or 3) for which to retrieve info.
-     * @return A randomly selected info string, or "Unknown level." if level is invalid.
+     * @param random The random stream of the session.
+     * @return A new {@link ContentSampler} over the loaded infos; it follows later reloads.
      */
-    public String getRandomInfo(int level) {
-        List<String> list;
-
-        switch (level) {
-            case 1:
-                list = level1Infos;
-                break;
-            case 2:
-                list = level2Infos;
-                break;
-            case 3:
-                list = level3Infos;
-                break;
-            default:
-                return "Unknown level.";
-        }
-
-        return list.get(RANDOM.nextInt(list.size()));
+    public ContentSampler newSampler(RandomSource random) {
+        return new ContentSampler(infos, random);
     }
 
+    /**
+     * Returns the store that holds the current infos snapshot, for example to watch it with a {@link ContentReloader}.
+     * 
+     * @return The infos store.
+     */
+    public ContentStore getStore() {
+        return infos;
+    }
 }
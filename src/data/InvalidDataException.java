@@ -0,0 +1,36 @@
+package data;
+
+/**
+ * Custom exception class used to signal that a game data file is malformed.
+ * 
+ * This exception is typically thrown in the following scenarios:
+ * -A line of a data file has the wrong number of fields.
+ * -A field cannot be parsed or is out of its allowed range.
+ * -A data file refers to an entry that is not defined.
+ * 
+ * The message always names the file and the line so the file can be fixed without a debugger.
+ */
+public class InvalidDataException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs a new InvalidDataException for a specific line of a data file.
+     *
+     * @param fileName   the name of the file that contains the error
+     * @param lineNumber the 1-based line number of the error
+     * @param message    the detail message explaining what is wrong with the line
+     */
+    public InvalidDataException(String fileName, int lineNumber, String message) {
+        super(fileName + " line " + lineNumber + ": " + message);
+    }
+
+    /**
+     * Constructs a new InvalidDataException with the specified detail message.
+     *
+     * @param message the detail message explaining the reason for the exception
+     */
+    public InvalidDataException(String message) {
+        super(message);
+    }
+}
@@ -11,12 +11,28 @@ import java.time.format.DateTimeFormatter;
 /**
  * The {@code Logger} class is responsible for logging important game events
  * such as game start, level transitions, score updates, player damage, and
- * final outcomes. All logs are appended to a file named {@code logs.txt}.
+ * final outcomes. All logs are appended to a file named {@code logs.txt}, or to
+ * another file set with {@link #setFilePath}.
  * 
  * This class provides static utility methods and is not intended to be instantiated.
  */
 public class Logger {
 
+    /** The file logs are appended to by default */
+    public static final String FILE_PATH = "data/logs.txt";
+
+    private static volatile String filePath = FILE_PATH;
+
+    /**
+     * Sets the file logs are appended to from now on, for example a temporary
+     * file for tools that must not write into the game's log.
+     *
+     * @param path The path of the log file.
+     */
+    public static void setFilePath(String path) {
+        filePath = path;
+    }
+
     /**
      * Appends a generic message to the {@code logs.txt} file.
      *
@@ -26,7 +42,7 @@ public class Logger {
     	DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
         String timestamp = "[" + LocalDateTime.now().format(formatter) + "]";
     	
-        File logFile = new File("data/logs.txt");
+        File logFile = new File(filePath);
         
         try {
             
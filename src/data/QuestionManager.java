@@ -1,15 +1,5 @@
 package data;
 
-import java.io.File;
-import java.security.SecureRandom;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Scanner;
-
-import javax.swing.JOptionPane;
-
-import user.InvalidUserException;
-
 /**
  * The {@code QuestionManager} class is responsible for loading and supplying
  * level-specific quiz questions used by enemies in the game.
@@ -20,11 +10,10 @@ import user.InvalidUserException;
  */
 public class QuestionManager {
 
-    private final List<String> level1Questions = new ArrayList<>();
-    private final List<String> level2Questions = new ArrayList<>();
-    private final List<String> level3Questions = new ArrayList<>();
-    
-    private static final SecureRandom RANDOM = new SecureRandom();
+    /** The file questions are loaded from */
+    public static final String FILE_PATH = "data/questions.txt";
+
+    private final ContentStore questions = new ContentStore(FILE_PATH);
 
     /**
      * Loads quiz questions from a text file named {@code questions.txt}.
@@ -36,51 +25,32 @@ public class QuestionManager {
      * [Level 3] question text...
      * 
      * 
-     * Each line must start with the level indicator. The rest of the line is stored as the actual question content for that level.
+     * Each line must start with the level indicator; any number of levels is supported. The rest of the line
+     * is stored as the actual question content for that level. See {@link ContentIndex} for the storage format.
+     * If an up-to-date {@link ContentPack} of the file exists, it is mapped instead of parsing the text.
      * 
      * @throws Exception if the file cannot be found
      */
     public void loadQuestions() throws Exception {
-    	 Scanner scanner = new Scanner(new File("data/questions.txt"));
-    	 while (scanner.hasNextLine()) {
-             String line = scanner.nextLine();
-             
-             if (line.startsWith("[Level 1]")) {
-                 level1Questions.add(line.substring(10).trim());
-             } 
-             else if (line.startsWith("[Level 2]")) {
-                 level2Questions.add(line.substring(10).trim());
-             } 
-             else if (line.startsWith("[Level 3]")) {
-                 level3Questions.add(line.substring(10).trim());
-             }
-         }
+        questions.reload();
     }
 
     /**
-     * Returns a random question string from the specified difficulty level.
+     * Creates a sampler that deals out questions for one game session without repetition.
      * 
-     * @param level The level of difficulty (1 for easy, 2 for medium, 3 for hard)
-     * @return A randomly selected question string from that level,
-     *         or "Unknown level." if the level is invalid.
+     * @param random The random stream of the session.
+     * @return A new {@link ContentSampler} over the loaded questions; it follows later reloads.
      */
-    public String getRandomQuestion(int level) {
-        List<String> list;
-        switch (level) {
-            case 1:
-            	list = level1Questions;
-            	break;
-            case 2:
-            	list = level2Questions;
-            	break;
-            case 3:
-            	list = level3Questions;
-            	break;
-            default: 
-                return "Unknown level.";
-            
-        }
+    public ContentSampler newSampler(RandomSource random) {
+        return new ContentSampler(questions, random);
+    }
 
-        return list.get(RANDOM.nextInt(list.size()));
+    /**
+     * Returns the store that holds the current questions snapshot, for example to watch it with a {@link ContentReloader}.
+     * 
+     * @return The questions store.
+     */
+    public ContentStore getStore() {
+        return questions;
     }
 }
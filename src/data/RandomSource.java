@@ -0,0 +1,38 @@
+package data;
+
+/**
+ * A source of game randomness.
+ *
+ * Every random decision of the game (fire delays, movement decisions, info/question rolls, text picks and avatar
+ * order) is drawn from a {@code RandomSource}. A session creates one root source from its seed and hands every
+ * consumer its own stream with {@link #split()}, so no stream is shared between entities or threads and the whole
+ * game can be replayed from the session seed.
+ *
+ * Implementations are not thread-safe; use one stream per thread.
+ */
+public interface RandomSource {
+
+    /**
+     * @param bound the upper bound (exclusive), must be positive
+     * @return a uniformly distributed int between 0 (inclusive) and bound (exclusive)
+     */
+    int nextInt(int bound);
+
+    /**
+     * @return a uniformly distributed double between 0 (inclusive) and 1 (exclusive)
+     */
+    double nextDouble();
+
+    /**
+     * @return a uniformly distributed boolean
+     */
+    boolean nextBoolean();
+
+    /**
+     * Creates a new, statistically independent stream. The new stream is fully determined by the state of this one,
+     * so splitting in the same order always yields the same streams.
+     *
+     * @return the new stream
+     */
+    RandomSource split();
+}
@@ -0,0 +1,53 @@
+package data;
+
+/**
+ * A shuffle bag of int values: every value is drawn exactly once per cycle, in random order.
+ *
+ * The bag is shuffled incrementally. Each draw swaps a random not-yet-drawn slot to the front of the remaining
+ * slots and returns it, which is one step of a Fisher-Yates shuffle. When every slot has been drawn, the next
+ * draw simply starts a new cycle over the same slots. A draw is therefore O(1) and never allocates.
+ *
+ * A value may be put into several slots to make it come up more often within a cycle.
+ */
+public class ShuffleBag {
+
+    private final int[] slots;
+    private int drawn;
+
+    /**
+     * Constructs a bag over the given slots. The array is owned by the bag afterwards.
+     *
+     * @param slots the values to draw; must not be empty
+     */
+    public ShuffleBag(int[] slots) {
+        if (slots.length == 0) {
+            throw new IllegalArgumentException("A shuffle bag needs at least one slot.");
+        }
+        this.slots = slots;
+    }
+
+    /**
+     * Draws the next value of the current cycle, starting a new cycle if the current one is exhausted.
+     *
+     * @param random the random stream to draw with
+     * @return the drawn value
+     */
+    public int draw(RandomSource random) {
+        if (drawn == slots.length) {
+            drawn = 0;
+        }
+        int pick = drawn + random.nextInt(slots.length - drawn);
+        int value = slots[pick];
+        slots[pick] = slots[drawn];
+        slots[drawn] = value;
+        drawn++;
+        return value;
+    }
+
+    /**
+     * @return the number of slots in one cycle
+     */
+    public int size() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,47 @@
+package data;
+
+import java.util.SplittableRandom;
+
+/**
+ * A fast, seedable {@link RandomSource} backed by {@link SplittableRandom}.
+ *
+ * Unlike {@code SecureRandom}, it is neither synchronized nor backed by the operating system's entropy pool,
+ * so a draw is only a few arithmetic operations, and the same seed always produces the same sequence.
+ */
+public class SplittableRandomSource implements RandomSource {
+
+    private final SplittableRandom random;
+
+    /**
+     * Constructs a root stream from the given seed.
+     *
+     * @param seed the session seed
+     */
+    public SplittableRandomSource(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private SplittableRandomSource(SplittableRandom random) {
+        this.random = random;
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    @Override
+    public double nextDouble() {
+        return random.nextDouble();
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return random.nextBoolean();
+    }
+
+    @Override
+    public RandomSource split() {
+        return new SplittableRandomSource(random.split());
+    }
+}
@@ -0,0 +1,256 @@
+package data;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * The {@code SpriteAtlas} class packs sprites into a few large page images and keeps a table of their regions.
+ *
+ * A sprite is packed the first time it is asked for, with a shelf packer: sprites are placed left to right
+ * on the current shelf of the current page, a new shelf starts below the tallest sprite of the previous one,
+ * and a new page starts when a page is full. Regions are identified by dense integer ids; their page and
+ * rectangle are stored in parallel arrays. Sprites of {@link SpriteCache} are looked up by their file and size,
+ * so a sprite the cache has released under memory pressure and decoded again reuses its region instead of being
+ * packed anew. Other images are looked up by identity.
+ *
+ * Packing never removes anything, so regions stay valid while a frame is recorded. Between frames,
+ * {@link #trim} {@link #reset}s an atlas that has grown past {@link #MAX_PAGES} pages, and packing starts over with
+ * the sprites still in use. Every reset starts a new {@link #getGeneration generation}; region ids of an older
+ * generation are no longer valid.
+ *
+ * Pages are screen-compatible images, like the sprites themselves. Opaque and translucent sprites are packed
+ * into separate pages, so opaque sprites such as the JPEG avatars are still drawn as plain copies without
+ * blending. {@link SpriteBatch} draws regions grouped by page.
+ *
+ * This class provides static utility methods and is not intended to be instantiated.
+ */
+public class SpriteAtlas {
+
+    /** Width and height of a page; larger sprites get a page of their own */
+    public static final int PAGE_SIZE = 1024;
+
+    /** Number of pages beyond which {@link #trim} starts the atlas over */
+    public static final int MAX_PAGES = 8;
+
+    /** Empty pixels between regions, so filtering never blends in a neighbour */
+    private static final int PADDING = 1;
+
+    /** Regions of sprites from the sprite cache, by file and size */
+    private static final Map<String, Integer> regionsByKey = new HashMap<>();
+
+    /** Regions of other images; weak keys, so the atlas does not keep released images alive, compared by identity */
+    private static final Map<Image, Integer> regionsBySprite = new WeakHashMap<>();
+    private static final List<BufferedImage> pages = new ArrayList<>();
+    private static volatile int generation;
+
+    private static int regionCount;
+    private static int[] regionPages = new int[64];
+    private static int[] regionXs = new int[64];
+    private static int[] regionYs = new int[64];
+    private static int[] regionWidths = new int[64];
+    private static int[] regionHeights = new int[64];
+
+    /** Shelf packer state of the page currently packed into, for opaque [0] and translucent [1] sprites */
+    private static final int[] currentPages = { -1, -1 };
+    private static final int[] shelfXs = new int[2];
+    private static final int[] shelfYs = new int[2];
+    private static final int[] shelfHeights = new int[2];
+
+    private SpriteAtlas() {
+    }
+
+    /**
+     * Returns the region of a sprite, packing it into the atlas on first use.
+     *
+     * @param sprite the sprite
+     * @return the region id
+     */
+    public static synchronized int regionOf(Image sprite) {
+        String key = SpriteCache.keyOf(sprite);
+        Integer region = key != null ? regionsByKey.get(key) : regionsBySprite.get(sprite);
+        if (region == null) {
+            region = pack(sprite);
+            if (key != null) {
+                regionsByKey.put(key, region);
+            }
+            else {
+                regionsBySprite.put(sprite, region);
+            }
+        }
+        return region;
+    }
+
+    /**
+     * Drops all pages and regions. Sprites are packed again on their next use.
+     */
+    public static synchronized void reset() {
+        regionsByKey.clear();
+        regionsBySprite.clear();
+        pages.clear();
+        regionCount = 0;
+        currentPages[0] = -1;
+        currentPages[1] = -1;
+        generation++;
+    }
+
+    /**
+     * Starts the atlas over if it has more than {@link #MAX_PAGES} pages, for example because sprites of several
+     * sizes or many released and decoded images were packed. Call it between frames.
+     */
+    public static synchronized void trim() {
+        if (pages.size() > MAX_PAGES) {
+            reset();
+        }
+    }
+
+    /**
+     * @return the number of resets so far; region ids are only valid within the generation they were returned in
+     */
+    public static int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return the number of pages
+     */
+    public static synchronized int getPageCount() {
+        return pages.size();
+    }
+
+    /**
+     * @param page the page index
+     * @return the page image
+     */
+    public static synchronized Image getPageImage(int page) {
+        return pages.get(page);
+    }
+
+    /**
+     * @param region the region id
+     * @return the page of the region
+     */
+    public static int getRegionPage(int region) {
+        return regionPages[region];
+    }
+
+    /**
+     * @param region the region id
+     * @return the x-coordinate of the region on its page
+     */
+    public static int getRegionX(int region) {
+        return regionXs[region];
+    }
+
+    /**
+     * @param region the region id
+     * @return the y-coordinate of the region on its page
+     */
+    public static int getRegionY(int region) {
+        return regionYs[region];
+    }
+
+    /**
+     * @param region the region id
+     * @return the width of the region
+     */
+    public static int getRegionWidth(int region) {
+        return regionWidths[region];
+    }
+
+    /**
+     * @param region the region id
+     * @return the height of the region
+     */
+    public static int getRegionHeight(int region) {
+        return regionHeights[region];
+    }
+
+    /**
+     * Copies a sprite into the next free place of the atlas and records its region.
+     */
+    private static int pack(Image sprite) {
+        int width = sprite.getWidth(null);
+        int height = sprite.getHeight(null);
+        int page;
+        int x;
+        int y;
+
+        int transparency = sprite instanceof BufferedImage ? ((BufferedImage) sprite).getTransparency() : Transparency.TRANSLUCENT;
+        int kind = transparency == Transparency.OPAQUE ? 0 : 1;
+
+        if (width + PADDING > PAGE_SIZE || height + PADDING > PAGE_SIZE) {
+            // Too large to share a page: give it one of its own and keep packing on the current page.
+            pages.add(createPage(width, height, transparency));
+            page = pages.size() - 1;
+            x = 0;
+            y = 0;
+        }
+        else {
+            if (currentPages[kind] < 0) {
+                startPage(kind);
+            }
+            if (shelfXs[kind] + width + PADDING > PAGE_SIZE) {
+                shelfXs[kind] = 0;
+                shelfYs[kind] += shelfHeights[kind];
+                shelfHeights[kind] = 0;
+            }
+            if (shelfYs[kind] + height + PADDING > PAGE_SIZE) {
+                startPage(kind);
+            }
+            page = currentPages[kind];
+            x = shelfXs[kind];
+            y = shelfYs[kind];
+            shelfXs[kind] += width + PADDING;
+            shelfHeights[kind] = Math.max(shelfHeights[kind], height + PADDING);
+        }
+
+        Graphics2D g2 = pages.get(page).createGraphics();
+        g2.setComposite(AlphaComposite.Src);
+        g2.drawImage(sprite, x, y, null);
+        g2.dispose();
+
+        if (regionCount == regionPages.length) {
+            int capacity = regionCount * 2;
+            regionPages = Arrays.copyOf(regionPages, capacity);
+            regionXs = Arrays.copyOf(regionXs, capacity);
+            regionYs = Arrays.copyOf(regionYs, capacity);
+            regionWidths = Arrays.copyOf(regionWidths, capacity);
+            regionHeights = Arrays.copyOf(regionHeights, capacity);
+        }
+        regionPages[regionCount] = page;
+        regionXs[regionCount] = x;
+        regionYs[regionCount] = y;
+        regionWidths[regionCount] = width;
+        regionHeights[regionCount] = height;
+        return regionCount++;
+    }
+
+    private static void startPage(int kind) {
+        pages.add(createPage(PAGE_SIZE, PAGE_SIZE, kind == 0 ? Transparency.OPAQUE : Transparency.TRANSLUCENT));
+        currentPages[kind] = pages.size() - 1;
+        shelfXs[kind] = 0;
+        shelfYs[kind] = 0;
+        shelfHeights[kind] = 0;
+    }
+
+    private static BufferedImage createPage(int width, int height, int transparency) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height,
+                    transparency == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        }
+        GraphicsConfiguration configuration = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration();
+        return configuration.createCompatibleImage(width, height, transparency);
+    }
+}
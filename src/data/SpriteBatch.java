@@ -0,0 +1,279 @@
+package data;
+
+import java.awt.Graphics;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The {@code SpriteBatch} class collects the sprite draws of a frame and issues them grouped by atlas page.
+ *
+ * Draws are only recorded by {@link #draw}; {@link #paint} then draws every region of one {@link SpriteAtlas}
+ * page before moving to the next, so the renderer switches source images at most once per page instead of once
+ * per sprite. Every draw belongs to a layer, and layers are painted in ascending order, each one page by page;
+ * within a layer and page, sprites keep the order they were added in. So sprites of a higher layer are always
+ * painted over those of a lower one, no matter on which atlas pages they were packed.
+ *
+ * Positions are given in logical world coordinates. A viewport set with {@link #setViewport} maps them to screen
+ * pixels, and every sprite is replaced by its {@link SpriteCache#getScaled scaled} version for the sprite scale of
+ * the viewport, so painting at any resolution still copies sprites without scaling them.
+ *
+ * The batch keeps the recorded sprites along with their regions. If the {@link SpriteAtlas} starts over, for
+ * example when another batch trims it, the regions are looked up again, so a frame stays valid across resets.
+ *
+ * A recorded frame stays in the batch until {@link #clear}, so it can be painted several times, for example once
+ * per dirty region; sprites outside of the clip are skipped. The bounds of the recorded sprites can be read back
+ * to find the regions that changed.
+ *
+ * The batch reuses its arrays from frame to frame and allocates nothing once it has grown to the frame size.
+ */
+public class SpriteBatch {
+
+    private int count;
+    private Image[] sprites = new Image[256];
+    private int[] regions = new int[256];
+    private int[] xs = new int[256];
+    private int[] ys = new int[256];
+    private int[] layers = new int[256];
+    private int maxLayer;
+
+    /** Atlas generation the recorded regions belong to */
+    private int generation = SpriteAtlas.getGeneration();
+
+    /** Draw order grouped by layer and page, rebuilt when sprites were recorded since the last paint */
+    private int[] order = new int[256];
+    private int[] bucketStarts = new int[2];
+    private int pageCount;
+    private boolean sorted;
+
+    /** Viewport from world coordinates to screen pixels, and the sprites scaled for it */
+    private double scale = 1;
+    private double spriteScale = 1;
+    private int offsetX;
+    private int offsetY;
+    private final Map<Image, Image> scaledSprites = new IdentityHashMap<>();
+
+    /**
+     * Sets how world coordinates map to screen pixels for the sprites recorded from now on:
+     * a world point (x, y) is drawn at (offsetX + x * scale, offsetY + y * scale).
+     *
+     * Sprites are drawn at the sprite scale, which is usually the scale rounded to a coarser step, so that
+     * resizing a window only creates a sprite set for every step instead of for every size. A new sprite scale
+     * {@link SpriteAtlas#reset resets} the atlas, so it only ever holds the sprites of the current scale.
+     *
+     * @param scale       the number of screen pixels per world unit
+     * @param spriteScale the scale of the sprites
+     * @param offsetX     the screen x-coordinate of the world origin
+     * @param offsetY     the screen y-coordinate of the world origin
+     */
+    public void setViewport(double scale, double spriteScale, int offsetX, int offsetY) {
+        if (spriteScale != this.spriteScale) {
+            // Sprites of the old scale are no longer drawn, so the atlas starts over with the new ones only.
+            scaledSprites.clear();
+            SpriteAtlas.reset();
+        }
+        this.scale = scale;
+        this.spriteScale = spriteScale;
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+    }
+
+    /**
+     * Records a sprite to draw at the given position, in the lowest layer.
+     *
+     * @param sprite the sprite at world size, packed into the atlas on first use
+     * @param x      the world x-coordinate of the top-left corner
+     * @param y      the world y-coordinate of the top-left corner
+     */
+    public void draw(Image sprite, int x, int y) {
+        draw(sprite, x, y, 0);
+    }
+
+    /**
+     * Records a sprite to draw at the given position in a layer. Higher layers are painted over lower ones.
+     *
+     * @param sprite the sprite at world size, packed into the atlas on first use
+     * @param x      the world x-coordinate of the top-left corner
+     * @param y      the world y-coordinate of the top-left corner
+     * @param layer  the layer, 0 or higher
+     */
+    public void draw(Image sprite, int x, int y, int layer) {
+        if (sprite == null) {
+            return;
+        }
+        if (spriteScale != 1) {
+            sprite = scaledOf(sprite);
+        }
+        if (scale != 1) {
+            x = (int) Math.round(x * scale);
+            y = (int) Math.round(y * scale);
+        }
+        if (count == regions.length) {
+            int capacity = count * 2;
+            sprites = Arrays.copyOf(sprites, capacity);
+            regions = Arrays.copyOf(regions, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            layers = Arrays.copyOf(layers, capacity);
+            order = new int[capacity];
+        }
+        sprites[count] = sprite;
+        regions[count] = SpriteAtlas.regionOf(sprite);
+        xs[count] = offsetX + x;
+        ys[count] = offsetY + y;
+        layers[count] = layer;
+        maxLayer = Math.max(maxLayer, layer);
+        count++;
+        sorted = false;
+    }
+
+    /**
+     * Empties the batch for the next frame, and lets the atlas start over if it has grown too large.
+     */
+    public void clear() {
+        Arrays.fill(sprites, 0, count, null);
+        SpriteAtlas.trim();
+        generation = SpriteAtlas.getGeneration();
+        count = 0;
+        maxLayer = 0;
+        sorted = false;
+    }
+
+    /**
+     * @return the number of recorded sprites
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return the sprite at the current sprite scale, created on first use
+     */
+    private Image scaledOf(Image sprite) {
+        Image scaled = scaledSprites.get(sprite);
+        if (scaled == null) {
+            try {
+                scaled = SpriteCache.getScaled(sprite, spriteScale);
+            }
+            catch (IOException e) {
+                Logger.log("Sprite cannot be scaled: " + e.getMessage());
+                scaled = sprite;
+            }
+            scaledSprites.put(sprite, scaled);
+        }
+        return scaled;
+    }
+
+    /**
+     * @param index the recorded sprite, between 0 and {@link #getCount()}
+     * @return the screen x-coordinate of the sprite
+     */
+    public int getX(int index) {
+        return xs[index];
+    }
+
+    /**
+     * @param index the recorded sprite, between 0 and {@link #getCount()}
+     * @return the screen y-coordinate of the sprite
+     */
+    public int getY(int index) {
+        return ys[index];
+    }
+
+    /**
+     * @param index the recorded sprite, between 0 and {@link #getCount()}
+     * @return the width of the sprite in screen pixels
+     */
+    public int getWidth(int index) {
+        return sprites[index].getWidth(null);
+    }
+
+    /**
+     * @param index the recorded sprite, between 0 and {@link #getCount()}
+     * @return the height of the sprite in screen pixels
+     */
+    public int getHeight(int index) {
+        return sprites[index].getHeight(null);
+    }
+
+    /**
+     * Draws the recorded sprites that intersect the clip, layer by layer and page by page. The batch keeps its sprites.
+     *
+     * @param g the {@link Graphics} context to draw on
+     */
+    public void paint(Graphics g) {
+        if (SpriteAtlas.getGeneration() != generation) {
+            resolveRegions();
+        }
+        if (!sorted) {
+            sortByLayerAndPage();
+        }
+
+        Rectangle clip = g.getClipBounds();
+        int start = 0;
+        int bucketCount = (maxLayer + 1) * pageCount;
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            int end = bucketStarts[bucket];
+            if (end > start) {
+                Image pageImage = SpriteAtlas.getPageImage(bucket % pageCount);
+                for (int k = start; k < end; k++) {
+                    int i = order[k];
+                    int region = regions[i];
+                    int width = SpriteAtlas.getRegionWidth(region);
+                    int height = SpriteAtlas.getRegionHeight(region);
+                    if (clip != null && (xs[i] >= clip.x + clip.width || ys[i] >= clip.y + clip.height
+                            || xs[i] + width <= clip.x || ys[i] + height <= clip.y)) {
+                        continue;
+                    }
+                    int sourceX = SpriteAtlas.getRegionX(region);
+                    int sourceY = SpriteAtlas.getRegionY(region);
+                    g.drawImage(pageImage, xs[i], ys[i], xs[i] + width, ys[i] + height,
+                            sourceX, sourceY, sourceX + width, sourceY + height, null);
+                }
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * Looks up the regions of all recorded sprites again in the current atlas generation.
+     */
+    private void resolveRegions() {
+        generation = SpriteAtlas.getGeneration();
+        for (int i = 0; i < count; i++) {
+            regions[i] = SpriteAtlas.regionOf(sprites[i]);
+        }
+        sorted = false;
+    }
+
+    /**
+     * Stable counting sort of the recorded sprites by layer and then page. Afterwards, the draws of bucket
+     * {@code b = layer * pageCount + page} are {@code order[bucketStarts[b - 1]]} to {@code order[bucketStarts[b] - 1]}.
+     */
+    private void sortByLayerAndPage() {
+        pageCount = SpriteAtlas.getPageCount();
+        int bucketCount = (maxLayer + 1) * pageCount;
+        if (bucketStarts.length < bucketCount + 1) {
+            bucketStarts = new int[bucketCount + 1];
+        }
+
+        Arrays.fill(bucketStarts, 0, bucketCount + 1, 0);
+        for (int i = 0; i < count; i++) {
+            bucketStarts[bucketOf(i) + 1]++;
+        }
+        for (int bucket = 1; bucket <= bucketCount; bucket++) {
+            bucketStarts[bucket] += bucketStarts[bucket - 1];
+        }
+        for (int i = 0; i < count; i++) {
+            order[bucketStarts[bucketOf(i)]++] = i;
+        }
+        sorted = true;
+    }
+
+    private int bucketOf(int index) {
+        return layers[index] * pageCount + SpriteAtlas.getRegionPage(regions[index]);
+    }
+}
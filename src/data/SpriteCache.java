@@ -0,0 +1,198 @@
+package data;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.imageio.ImageIO;
+
+/**
+ * The {@code SpriteCache} class hands out ready-to-draw sprites for image assets.
+ *
+ * Each asset file is decoded once. Every requested size of it is resampled once, halving the image step by step
+ * with bilinear filtering while it is more than twice the target size and finishing with a bicubic step, which
+ * keeps downscaled sprites sharp without the cost of {@code SCALE_SMOOTH}. The result is copied into an image in
+ * the screen's native format from {@link GraphicsConfiguration#createCompatibleImage}, so drawing a sprite is a
+ * plain, hardware-accelerated copy. Without a screen (headless), a standard ARGB or RGB image is used instead.
+ *
+ * For drawing at another resolution, {@link #getScaled} returns a sprite resampled from the original file at a
+ * scale factor, created once per sprite and scale, so the scaled sprite can be drawn without scaling.
+ *
+ * Sprites are shared between all callers and must not be drawn into. The cache only holds them through soft
+ * references: under memory pressure, sprites no longer used anywhere are released and decoded again on next use.
+ *
+ * This class provides static utility methods and is not intended to be instantiated.
+ */
+public class SpriteCache {
+
+    /** Decoded asset files, by path */
+    private static final Map<String, SoftReference<BufferedImage>> sources = new ConcurrentHashMap<>();
+
+    /** Finished sprites, by path and size */
+    private static final Map<String, SoftReference<Image>> sprites = new ConcurrentHashMap<>();
+
+    /** Path of the file every handed out sprite was made from */
+    private static final Map<Image, String> pathsBySprite = Collections.synchronizedMap(new WeakHashMap<Image, String>());
+
+    private SpriteCache() {
+    }
+
+    /**
+     * Returns the sprite of an asset at its original size.
+     *
+     * @param path the path of the image file
+     * @return the shared sprite
+     * @throws IOException if the file cannot be read
+     */
+    public static Image get(String path) throws IOException {
+        return get(path, 0, 0);
+    }
+
+    /**
+     * Returns the sprite of an asset scaled to the given size.
+     *
+     * @param path   the path of the image file
+     * @param width  the width of the sprite, or 0 for the original size
+     * @param height the height of the sprite, or 0 for the original size
+     * @return the shared sprite
+     * @throws IOException if the file cannot be read
+     */
+    public static Image get(String path, int width, int height) throws IOException {
+        String key = path + "@" + width + "x" + height;
+        SoftReference<Image> reference = sprites.get(key);
+        Image sprite = reference != null ? reference.get() : null;
+        if (sprite == null) {
+            BufferedImage source = sourceOf(path);
+            int targetWidth = width > 0 ? width : source.getWidth();
+            int targetHeight = height > 0 ? height : source.getHeight();
+            sprite = toCompatible(scale(source, targetWidth, targetHeight));
+
+            sprites.put(key, new SoftReference<>(sprite));
+            pathsBySprite.put(sprite, path);
+        }
+        return sprite;
+    }
+
+    /**
+     * Returns a sprite of this cache resampled from its file at a scale factor, for example for a larger window
+     * or a high-density screen. Images that do not come from this cache are returned unchanged.
+     *
+     * @param sprite a sprite returned by {@link #get}
+     * @param scale  the scale factor
+     * @return the shared scaled sprite
+     * @throws IOException if the file cannot be read
+     */
+    public static Image getScaled(Image sprite, double scale) throws IOException {
+        String path = pathsBySprite.get(sprite);
+        if (path == null || scale == 1) {
+            return sprite;
+        }
+        int width = Math.max(1, (int) Math.round(sprite.getWidth(null) * scale));
+        int height = Math.max(1, (int) Math.round(sprite.getHeight(null) * scale));
+        return get(path, width, height);
+    }
+
+    /**
+     * Drops all cached sprites and decoded files, and the atlas regions made from them, for example after
+     * the assets have changed on disk.
+     */
+    public static void clear() {
+        sprites.clear();
+        sources.clear();
+        SpriteAtlas.reset();
+    }
+
+    /**
+     * Returns a key naming the file and size a sprite was made from. A sprite that was released and decoded
+     * again gets the same key, though it is a different image.
+     *
+     * @param sprite a sprite
+     * @return the key, or {@code null} if the sprite does not come from this cache
+     */
+    static String keyOf(Image sprite) {
+        String path = pathsBySprite.get(sprite);
+        return path != null ? path + "@" + sprite.getWidth(null) + "x" + sprite.getHeight(null) : null;
+    }
+
+    /**
+     * @return the decoded image of the file, decoding it on first use
+     */
+    private static BufferedImage sourceOf(String path) throws IOException {
+        SoftReference<BufferedImage> reference = sources.get(path);
+        BufferedImage source = reference != null ? reference.get() : null;
+        if (source == null) {
+            source = ImageIO.read(new File(path));
+            if (source == null) {
+                throw new IOException("Unsupported image format: " + path);
+            }
+            sources.put(path, new SoftReference<>(source));
+        }
+        return source;
+    }
+
+    /**
+     * Resamples an image to the target size: bilinear halving steps down to at most twice the target size,
+     * then one bicubic step. Enlarging is a single bicubic step.
+     */
+    private static BufferedImage scale(BufferedImage source, int targetWidth, int targetHeight) {
+        if (source.getWidth() == targetWidth && source.getHeight() == targetHeight) {
+            return source;
+        }
+
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        while (currentWidth / 2 >= targetWidth && currentHeight / 2 >= targetHeight) {
+            currentWidth /= 2;
+            currentHeight /= 2;
+            current = resample(current, currentWidth, currentHeight, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        }
+        return resample(current, targetWidth, targetHeight, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+    }
+
+    private static BufferedImage resample(BufferedImage image, int width, int height, Object interpolation) {
+        BufferedImage result = new BufferedImage(width, height,
+                image.getTransparency() == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = result.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+        g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2.drawImage(image, 0, 0, width, height, null);
+        g2.dispose();
+        return result;
+    }
+
+    /**
+     * Copies an image into the native format of the screen, or a standard format when there is no screen.
+     */
+    private static Image toCompatible(BufferedImage image) {
+        int transparency = image.getTransparency();
+        BufferedImage result;
+        if (GraphicsEnvironment.isHeadless()) {
+            result = new BufferedImage(image.getWidth(), image.getHeight(),
+                    transparency == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        }
+        else {
+            GraphicsConfiguration configuration = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDefaultConfiguration();
+            result = configuration.createCompatibleImage(image.getWidth(), image.getHeight(), transparency);
+        }
+
+        Graphics2D g2 = result.createGraphics();
+        g2.setComposite(AlphaComposite.Src);
+        g2.drawImage(image, 0, 0, null);
+        g2.dispose();
+        return result;
+    }
+}
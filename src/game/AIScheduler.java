@@ -0,0 +1,120 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import characters.KnowledgeKeeper;
+import data.EnemyTypes;
+
+/**
+ * Schedules the movement decisions of chasing enemies on game loop ticks.
+ *
+ * Each enemy re-rolls its chase decision once per decision interval of its archetype, converted from milliseconds
+ * to ticks. Decisions are kept in a timing wheel of per-tick buckets. Enemies registered together are spread over
+ * the ticks of their interval instead of all deciding on the same tick, so the AI cost per tick stays flat.
+ *
+ * A per-tick time budget bounds the work further: when it runs out, the remaining decisions of the tick are
+ * deferred to the next tick and done first there. A deferred enemy simply keeps its previous decision a bit longer.
+ *
+ * Enemies whose archetype never chases are not scheduled at all.
+ */
+public class AIScheduler {
+
+    /** Number of buckets in the timing wheel; longer decision intervals are clamped to one less than this */
+    private static final int WHEEL_SIZE = 1024;
+
+    /** How many decisions are made between two clock reads while checking the budget */
+    private static final int BUDGET_CHECK_INTERVAL = 64;
+
+    /** Default time budget of the AI per tick in nanoseconds */
+    public static final long DEFAULT_BUDGET_NANOS = 2_000_000;
+
+    private final List<List<KnowledgeKeeper>> buckets = new ArrayList<>(WHEEL_SIZE);
+    private final List<KnowledgeKeeper> deferred = new ArrayList<>();
+    private final List<KnowledgeKeeper> working = new ArrayList<>();
+    private final long budgetNanos;
+
+    private long tick;
+    private int registeredCount;
+    private long deferredCount;
+
+    /**
+     * Constructs a scheduler with the given AI time budget per tick.
+     *
+     * @param budgetNanos Maximum time spent on decisions per tick, in nanoseconds.
+     */
+    public AIScheduler(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            buckets.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Schedules the decisions of a new enemy. Consecutive registrations are staggered over the enemy's interval.
+     *
+     * @param enemy The enemy to schedule.
+     */
+    public void register(KnowledgeKeeper enemy) {
+        if (EnemyTypes.getChaseChance(enemy.getTypeId()) <= 0) {
+            return;
+        }
+        int interval = intervalOf(enemy);
+        int offset = 1 + registeredCount % interval;
+        registeredCount++;
+        buckets.get((int) ((tick + offset) % WHEEL_SIZE)).add(enemy);
+    }
+
+    /**
+     * Advances the scheduler by one tick and makes the decisions that are due, within the time budget.
+     */
+    public void update() {
+        tick++;
+        List<KnowledgeKeeper> bucket = buckets.get((int) (tick % WHEEL_SIZE));
+
+        working.addAll(deferred);
+        deferred.clear();
+        working.addAll(bucket);
+        bucket.clear();
+
+        long deadline = System.nanoTime() + budgetNanos;
+        for (int i = 0; i < working.size(); i++) {
+            if (i % BUDGET_CHECK_INTERVAL == BUDGET_CHECK_INTERVAL - 1 && System.nanoTime() > deadline) {
+                deferred.addAll(working.subList(i, working.size()));
+                deferredCount += working.size() - i;
+                break;
+            }
+
+            KnowledgeKeeper enemy = working.get(i);
+            enemy.decideMovement();
+            buckets.get((int) ((tick + intervalOf(enemy)) % WHEEL_SIZE)).add(enemy);
+        }
+        working.clear();
+    }
+
+    /**
+     * Removes every scheduled enemy, for example on a level change.
+     */
+    public void clear() {
+        for (List<KnowledgeKeeper> bucket : buckets) {
+            bucket.clear();
+        }
+        deferred.clear();
+        registeredCount = 0;
+    }
+
+    /**
+     * @return The number of decisions that were postponed to a later tick because the budget ran out.
+     */
+    public long getDeferredCount() {
+        return deferredCount;
+    }
+
+    /**
+     * @return The decision interval of the enemy's archetype in ticks, between 1 and {@code WHEEL_SIZE - 1}.
+     */
+    private static int intervalOf(KnowledgeKeeper enemy) {
+        int ticks = EnemyTypes.getDecisionMillis(enemy.getTypeId()) / GameManager.TICK_MILLIS;
+        return Math.max(1, Math.min(WHEEL_SIZE - 1, ticks));
+    }
+}
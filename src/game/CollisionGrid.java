@@ -0,0 +1,207 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * A uniform spatial grid used as the broad phase of collision detection.
+ *
+ * Every entity is registered with an integer id (usually its index in the owning list) and its axis aligned
+ * bounding box. The box is linked into every cell it overlaps, so a query only has to look at the cells covered
+ * by the query box instead of every registered entity. Any number of queries can be run against the same grid
+ * in one tick, which covers player-vs-shot, shot-vs-shot and pickup checks alike.
+ *
+ * All storage lives in primitive arrays that are reused between ticks. Arrays only grow when more entities are
+ * inserted than ever before, so a steady game loop performs no allocations here.
+ *
+ * Boxes that lie partly or fully outside of the world are clamped into the border cells, so they are still found.
+ */
+public class CollisionGrid {
+
+    private final int cellSize;
+    private final int columns;
+    private final int rows;
+
+    /** First entry of each cell's linked list, or -1 when the cell is empty */
+    private final int[] cellHeads;
+
+    /** Entry storage: the id of the entity and the next entry in the same cell */
+    private int[] entryIds;
+    private int[] entryNext;
+    private int entryCount;
+
+    /** Bounding box of every registered id, stored as min/max corners */
+    private int[] minX;
+    private int[] minY;
+    private int[] maxX;
+    private int[] maxY;
+
+    /** Per-id stamp used to report an id only once per query even if it spans several cells */
+    private int[] visitStamp;
+    private int currentStamp;
+
+    /** Ids found by the last query */
+    private int[] hits;
+
+    /**
+     * Constructs a grid covering a world of the given size.
+     *
+     * @param worldWidth  Width of the world in pixels.
+     * @param worldHeight Height of the world in pixels.
+     * @param cellSize    Edge length of a single square cell in pixels.
+     */
+    public CollisionGrid(int worldWidth, int worldHeight, int cellSize) {
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (worldWidth + cellSize - 1) / cellSize);
+        this.rows = Math.max(1, (worldHeight + cellSize - 1) / cellSize);
+        this.cellHeads = new int[columns * rows];
+
+        int initialCapacity = 64;
+        this.entryIds = new int[initialCapacity];
+        this.entryNext = new int[initialCapacity];
+        this.minX = new int[initialCapacity];
+        this.minY = new int[initialCapacity];
+        this.maxX = new int[initialCapacity];
+        this.maxY = new int[initialCapacity];
+        this.visitStamp = new int[initialCapacity];
+        this.hits = new int[initialCapacity];
+
+        clear();
+    }
+
+    /**
+     * Removes every registered entity. Must be called at the start of each tick before re-inserting.
+     */
+    public void clear() {
+        Arrays.fill(cellHeads, -1);
+        entryCount = 0;
+    }
+
+    /**
+     * Registers an entity with the given id and bounding box.
+     *
+     * @param id     Non-negative id of the entity, reported back by {@link #query}.
+     * @param x      Left edge of the box.
+     * @param y      Top edge of the box.
+     * @param width  Width of the box.
+     * @param height Height of the box.
+     */
+    public void insert(int id, int x, int y, int width, int height) {
+        ensureIdCapacity(id + 1);
+        minX[id] = x;
+        minY[id] = y;
+        maxX[id] = x + width;
+        maxY[id] = y + height;
+
+        int firstColumn = columnOf(x);
+        int lastColumn = columnOf(x + width - 1);
+        int firstRow = rowOf(y);
+        int lastRow = rowOf(y + height - 1);
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                if (entryCount == entryIds.length) {
+                    entryIds = Arrays.copyOf(entryIds, entryCount * 2);
+                    entryNext = Arrays.copyOf(entryNext, entryCount * 2);
+                }
+                int cell = row * columns + column;
+                entryIds[entryCount] = id;
+                entryNext[entryCount] = cellHeads[cell];
+                cellHeads[cell] = entryCount;
+                entryCount++;
+            }
+        }
+    }
+
+    /**
+     * Finds every registered entity whose box intersects the given box.
+     *
+     * Intersection follows {@link java.awt.Rectangle#intersects}: boxes that only touch at an edge do not collide.
+     * The found ids can be read with {@link #getHit(int)} until the next query.
+     *
+     * @param x      Left edge of the query box.
+     * @param y      Top edge of the query box.
+     * @param width  Width of the query box.
+     * @param height Height of the query box.
+     * @return The number of ids found.
+     */
+    public int query(int x, int y, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return 0;
+        }
+        nextStamp();
+
+        int right = x + width;
+        int bottom = y + height;
+        int hitCount = 0;
+
+        int firstColumn = columnOf(x);
+        int lastColumn = columnOf(right - 1);
+        int firstRow = rowOf(y);
+        int lastRow = rowOf(bottom - 1);
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                for (int entry = cellHeads[row * columns + column]; entry != -1; entry = entryNext[entry]) {
+                    int id = entryIds[entry];
+                    if (visitStamp[id] == currentStamp) {
+                        continue;
+                    }
+                    visitStamp[id] = currentStamp;
+
+                    if (minX[id] < right && x < maxX[id] && minY[id] < bottom && y < maxY[id]
+                            && minX[id] < maxX[id] && minY[id] < maxY[id]) {
+                        if (hitCount == hits.length) {
+                            hits = Arrays.copyOf(hits, hitCount * 2);
+                        }
+                        hits[hitCount++] = id;
+                    }
+                }
+            }
+        }
+        return hitCount;
+    }
+
+    /**
+     * Returns an id found by the last {@link #query}.
+     *
+     * @param index Index between 0 and the count returned by the query.
+     * @return The id of the colliding entity.
+     */
+    public int getHit(int index) {
+        return hits[index];
+    }
+
+    /**
+     * Advances the visit stamp, resetting all stamps on the rare integer wrap-around.
+     */
+    private void nextStamp() {
+        currentStamp++;
+        if (currentStamp == Integer.MAX_VALUE) {
+            Arrays.fill(visitStamp, 0);
+            currentStamp = 1;
+        }
+    }
+
+    /**
+     * Grows the per-id arrays so that ids below {@code required} can be stored.
+     */
+    private void ensureIdCapacity(int required) {
+        if (required <= minX.length) {
+            return;
+        }
+        int capacity = Math.max(required, minX.length * 2);
+        minX = Arrays.copyOf(minX, capacity);
+        minY = Arrays.copyOf(minY, capacity);
+        maxX = Arrays.copyOf(maxX, capacity);
+        maxY = Arrays.copyOf(maxY, capacity);
+        visitStamp = Arrays.copyOf(visitStamp, capacity);
+    }
+
+    private int columnOf(int x) {
+        return Math.min(columns - 1, Math.max(0, Math.floorDiv(x, cellSize)));
+    }
+
+    private int rowOf(int y) {
+        return Math.min(rows - 1, Math.max(0, Math.floorDiv(y, cellSize)));
+    }
+}
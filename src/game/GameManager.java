@@ -3,14 +3,24 @@ package game;
 import user.User;
 import data.QuestionManager;
 import shotbox.ShotBox;
+import shotbox.ShotManager;
 import data.InfoManager;
 import java.awt.Image;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import characters.*;
 import data.EnemyAvatar;
+import data.EnemyTypes;
+import data.ContentSampler;
 import data.Logger;
+import data.RandomSource;
+import data.SplittableRandomSource;
 
 /**
  * Manages the core game logic such as level progression, enemy generation, score tracking, and win/lose conditions.
@@ -20,29 +30,84 @@ import data.Logger;
  */
 public class GameManager {
 
+    /** Length of one game loop tick in milliseconds */
+    public static final int TICK_MILLIS = 20;
+
+    /** Size of the game world in logical units; the game screen scales it to fit its window */
+    public static final int WORLD_WIDTH = 1100;
+    public static final int WORLD_HEIGHT = 812;
+
+    /** Endless mode: enemies of the first endless wave, extra enemies and extra required score per wave */
+    private static final int ENDLESS_BASE_ENEMIES = 6;
+    private static final int ENDLESS_ENEMIES_PER_WAVE = 3;
+    private static final int ENDLESS_SCORE_PER_WAVE = 200;
+
+    /** Endless mode: fire delay of the first endless wave, its decay per wave and its lower bound in milliseconds */
+    private static final int ENDLESS_BASE_FIRE_DELAY = 2000;
+    private static final double ENDLESS_FIRE_DELAY_DECAY = 0.85;
+    private static final int ENDLESS_MIN_FIRE_DELAY = 100;
+
+    /** Share of the way from the previous to the required score after which the next level is prepared in the background */
+    private static final double PREPARE_AT_PROGRESS = 0.75;
+
     private User currentUser;
     private int currentLevel;
     private int requiredScore;
     private boolean gameOver;
+    private boolean endless;
+
+    /** Avatar pools indexed by enemy type id */
+    private EnemyAvatar[] avatarPools;
+
+    /** Session seed and the root random stream derived from it; every enemy gets its own split stream */
+    private long seed;
+    private RandomSource random;
 
-    private EnemyAvatar slPool;
-    private EnemyAvatar taPool;
-    private EnemyAvatar professorPool;
+    /** Per-session samplers that deal out questions and infos without repetition */
+    private ContentSampler questionSampler;
+    private ContentSampler infoSampler;
+
+    /** Staggered, tick-based scheduler for the movement decisions of chasing enemies */
+    private AIScheduler aiScheduler = new AIScheduler(AIScheduler.DEFAULT_BUDGET_NANOS);
+
+    /** Compiled level definitions, and the progress through the spawns of the current level */
+    private LevelPlan levelPlan;
+    private int levelTick;
+    private int nextSpawn;
+
+    /** Enemies of the current level, built before it started and activated as their spawns come due */
+    private PreparedLevel currentPrepared;
+
+    /** The next level while it is prepared in the background, and the thread preparing it */
+    private Future<PreparedLevel> nextPrepared;
+    private int nextPreparedLevel;
+    private ExecutorService levelPreparer;
 
     /**
      * Constructs a GameManager for the given user and initializes game state.
      *
-     * @param user The player for the current game session.
+     * @param user      The player for the current game session.
+     * @param levelPlan The compiled level definitions to play.
+     * @param seed      The session seed all game randomness is derived from.
+     * @param qm        The {@link QuestionManager} for question generation.
+     * @param im        The {@link InfoManager} for info generation.
      * @throws Exception 
      */
-    public GameManager(User user) throws Exception {
+    public GameManager(User user, LevelPlan levelPlan, long seed, QuestionManager qm, InfoManager im) throws Exception {
         this.currentUser = user;
+        this.seed = seed;
+        this.random = new SplittableRandomSource(seed);
+        this.questionSampler = qm.newSampler(random.split());
+        this.infoSampler = im.newSampler(random.split());
+        this.levelPlan = levelPlan;
         this.currentLevel = 1;
         updateLevelConfig();
         this.gameOver = false;
-        this.slPool = new EnemyAvatar("assets/SLs");
-        this.taPool = new EnemyAvatar("assets/TAs");
-        this.professorPool = new EnemyAvatar("assets/Professors");
+        this.avatarPools = new EnemyAvatar[EnemyTypes.getCount()];
+        for (int typeId = 0; typeId < avatarPools.length; typeId++) {
+            avatarPools[typeId] = new EnemyAvatar(EnemyTypes.getAvatarFolder(typeId), random.split(),
+                    KnowledgeKeeper.AVATAR_WIDTH, KnowledgeKeeper.AVATAR_HEIGHT);
+        }
     }
 
 
@@ -60,6 +125,13 @@ public class GameManager {
         return requiredScore;
     }
 
+    /**
+     * @return The seed this session was started with; the same seed replays the same random decisions.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
     /**
      * @return True if the game has ended, false otherwise.
      */
@@ -67,6 +139,23 @@ public class GameManager {
         return gameOver;
     }
 
+    /**
+     * @return True if the game continues with generated waves after the last defined level.
+     */
+    public boolean isEndless() {
+        return endless;
+    }
+
+    /**
+     * Enables or disables endless mode. In endless mode, finishing the last level of the {@link LevelPlan}
+     * does not win the game; instead ever larger generated waves with higher fire rates follow until the player dies.
+     *
+     * @param endless True to enable endless mode.
+     */
+    public void setEndless(boolean endless) {
+        this.endless = endless;
+    }
+
     /**
      * @return The current user playing the game.
      */
@@ -80,6 +169,7 @@ public class GameManager {
     public void gameStart() {
         Logger.logGameStart();
         Logger.log("Player: " + currentUser.getName() + " has entered.");
+        Logger.log("Session seed: " + seed);
         Logger.log("Knowledge Keepers has entered.");
     }
 
@@ -87,81 +177,242 @@ public class GameManager {
      * Sets the required score based on the current level.
      */
     private void updateLevelConfig() {
-        switch (currentLevel) {
-            case 1:
-            	requiredScore = 50;
-            	break;
-            case 2:
-            	requiredScore = 150;
-            	break;
-            case 3:
-            	requiredScore = 300;
-            	break;
+        requiredScore = requiredScoreOf(currentLevel);
+    }
+
+    /**
+     * @return The score required to finish the given level, including the endless levels after the last defined one.
+     */
+    private int requiredScoreOf(int level) {
+        int levelCount = levelPlan.getLevelCount();
+        if (level <= levelCount) {
+            return levelPlan.getRequiredScore(level);
         }
+        return levelPlan.getRequiredScore(levelCount) + (level - levelCount) * ENDLESS_SCORE_PER_WAVE;
     }
 
     /**
-     * Generates enemies for the current level, starts their shooting behavior,
-     * and returns them.
+     * Starts the spawn plan of the current level and returns the enemies that are due immediately,
+     * with their shooting behavior started. Later waves are added by {@link #spawnWaves}.
+     *
+     * The enemies of the level are usually already built in the background (see {@link #checkLevelUp}),
+     * so starting a level only activates them. Otherwise, as for the first level, they are built here.
      *
-     * @param qm         The {@link QuestionManager} for question generation.
-     * @param im         The {@link InfoManager} for info generation.
-     * @param shotBoxes  The shared list where enemies add their {@link ShotBox} instances.
+     * @param shotBoxes  The shared {@link ShotManager} where enemies spawn their {@link ShotBox} instances.
      * @return A list of {@link KnowledgeKeeper} enemies.
      */
-    public List<KnowledgeKeeper> generateEnemies(QuestionManager qm, InfoManager im, List<ShotBox> shotBoxes) {
+    public List<KnowledgeKeeper> generateEnemies(ShotManager shotBoxes) {
+        long start = System.nanoTime();
         List<KnowledgeKeeper> enemyList = new ArrayList<>();
-        int startX = 100;
-
-        if (currentLevel == 1) {
-            int spacing = 300;
-            
-            for (int i = 0; i < 4; i++) {
-                Image avatar = slPool.getAvatarPath();
-                SectionLeader sl = new SectionLeader(startX + i * spacing, 60, avatar, qm, im);
-                sl.startShooting(shotBoxes);
-                enemyList.add(sl);
-            }
-        } else if (currentLevel == 2) {
-            int spacing = 200;
-            
-            for (int i = 0; i < 4; i++) {
-                Image avatar = slPool.getAvatarPath();
-                SectionLeader sl = new SectionLeader(startX + i * spacing, 60, avatar, qm, im);
-                sl.startShooting(shotBoxes);
-                enemyList.add(sl);
+        levelTick = 0;
+        aiScheduler.clear();
+
+        boolean prepared = nextPrepared != null && nextPreparedLevel == currentLevel;
+        currentPrepared = takePreparedLevel(currentLevel);
+
+        if (currentLevel > levelPlan.getLevelCount()) {
+            for (KnowledgeKeeper enemy : currentPrepared.enemies) {
+                enemyList.add(activate(enemy, shotBoxes));
             }
-            for (int i = 0; i < 2; i++) {
-                Image avatar = taPool.getAvatarPath();
-                TeachingAssistants ta = new TeachingAssistants(startX + i * spacing, 60, avatar, qm, im);
-                ta.startShooting(shotBoxes);
-                enemyList.add(ta);
+        }
+        else {
+            nextSpawn = levelPlan.getSpawnStart(currentLevel);
+            spawnDue(shotBoxes, enemyList);
+        }
+
+        Logger.log("Level " + currentLevel + " set up in " + (System.nanoTime() - start) / 1000 + " us ("
+                + (prepared ? "prepared in the background" : "built on demand") + ").");
+        return enemyList;
+    }
+
+    /**
+     * Generates the enemies of an endless wave and adds them to the given list.
+     *
+     * Every wave has {@code ENDLESS_ENEMIES_PER_WAVE} more enemies than the previous one, cycling through all
+     * enemy types, and their fire delay shrinks by {@code ENDLESS_FIRE_DELAY_DECAY} per wave.
+     *
+     * @param wave       The 1-based number of the endless wave.
+     * @param shotBoxes  The shared {@link ShotManager} where enemies spawn their {@link ShotBox} instances.
+     * @param enemyList  The list to add the generated enemies to.
+     */
+    public void generateEndlessWave(int wave, ShotManager shotBoxes, List<KnowledgeKeeper> enemyList) {
+        for (KnowledgeKeeper enemy : buildEndlessWave(wave, random.split())) {
+            enemyList.add(activate(enemy, shotBoxes));
+        }
+    }
+
+    /**
+     * Advances the level clock by one tick and adds the enemies of every wave that became due.
+     *
+     * Spawns are precomputed and sorted by tick in the {@link LevelPlan}, so this only compares
+     * the next pending spawn with the clock.
+     *
+     * @param shotBoxes  The shared {@link ShotManager} where enemies spawn their {@link ShotBox} instances.
+     * @param enemyList  The list of active enemies to add new enemies to.
+     */
+    public void spawnWaves(ShotManager shotBoxes, List<KnowledgeKeeper> enemyList) {
+        levelTick++;
+        spawnDue(shotBoxes, enemyList);
+    }
+
+    /**
+     * Runs the movement decisions of the enemies that are due in this tick. Called once per game loop tick.
+     */
+    public void updateAI() {
+        aiScheduler.update();
+    }
+
+    /**
+     * Activates every prepared spawn of the current level that is due at the current level tick.
+     */
+    private void spawnDue(ShotManager shotBoxes, List<KnowledgeKeeper> enemyList) {
+        if (currentLevel > levelPlan.getLevelCount()) {
+            return;
+        }
+        int start = levelPlan.getSpawnStart(currentLevel);
+        int end = levelPlan.getSpawnEnd(currentLevel);
+        while (nextSpawn < end && levelPlan.getSpawnTick(nextSpawn) <= levelTick) {
+            enemyList.add(activate(currentPrepared.enemies[nextSpawn - start], shotBoxes));
+            nextSpawn++;
+        }
+    }
+
+    /**
+     * Starts the shooting behavior of a prepared enemy and hands it to the AI scheduler.
+     *
+     * @return The enemy.
+     */
+    private KnowledgeKeeper activate(KnowledgeKeeper enemy, ShotManager shotBoxes) {
+        enemy.startShooting(shotBoxes);
+        aiScheduler.register(enemy);
+        return enemy;
+    }
+
+    /**
+     * Starts preparing the next level in the background once the score has covered {@code PREPARE_AT_PROGRESS}
+     * of the way to the required score, unless it is already being prepared or there is no next level.
+     */
+    private void prepareNextLevelIfClose(int currentScore) {
+        final int level = currentLevel + 1;
+        if (gameOver || nextPrepared != null || (level > levelPlan.getLevelCount() && !endless)) {
+            return;
+        }
+        int previousRequired = currentLevel > 1 ? requiredScoreOf(currentLevel - 1) : 0;
+        if (currentScore < previousRequired + (requiredScore - previousRequired) * PREPARE_AT_PROGRESS) {
+            return;
+        }
+
+        if (levelPreparer == null) {
+            levelPreparer = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "level-preparer");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+
+        // The stream is split here, on the game thread, so the level gets the same randomness however
+        // long the preparation takes.
+        final RandomSource levelRandom = random.split();
+        nextPreparedLevel = level;
+        nextPrepared = levelPreparer.submit(new Callable<PreparedLevel>() {
+            @Override
+            public PreparedLevel call() {
+                return buildLevel(level, levelRandom);
             }
-        } else if (currentLevel == 3) {
-            int spacing = 250;
-            
-            for (int i = 0; i < 3; i++) {
-                Image avatar = taPool.getAvatarPath();
-                TeachingAssistants ta = new TeachingAssistants(startX + i * spacing, 60, avatar, qm, im);
-                ta.startShooting(shotBoxes);
-                enemyList.add(ta);
+        });
+    }
+
+    /**
+     * Returns the enemies of the given level: the ones prepared in the background if there are any,
+     * waiting for the preparation to finish if needed, or otherwise freshly built.
+     */
+    private PreparedLevel takePreparedLevel(int level) {
+        Future<PreparedLevel> prepared = nextPrepared;
+        nextPrepared = null;
+        if (prepared != null && nextPreparedLevel == level) {
+            try {
+                return prepared.get();
             }
-            for (int i = 0; i < 2; i++) {
-                Image avatar = professorPool.getAvatarPath();
-                Professors prof = new Professors(startX + i * spacing, 60, avatar, qm, im);
-                prof.startShooting(shotBoxes);
-                enemyList.add(prof);
+            catch (Exception e) {
+                Logger.log("Level " + level + " could not be prepared in the background: " + e);
             }
         }
+        else if (prepared != null) {
+            prepared.cancel(true);
+        }
+        return buildLevel(level, random.split());
+    }
 
-        return enemyList;
+    /**
+     * Builds every enemy of a level without activating them. Runs on the level preparer thread or,
+     * when nothing was prepared, on the game thread. The avatar pools are only ever used by one
+     * preparation at a time, as a level is only prepared after the previous one was taken.
+     *
+     * @param level       The level to build.
+     * @param levelRandom The random stream of the level, split off the session stream on the game thread.
+     * @return The enemies of the level, in spawn order.
+     */
+    private PreparedLevel buildLevel(int level, RandomSource levelRandom) {
+        if (level > levelPlan.getLevelCount()) {
+            return new PreparedLevel(buildEndlessWave(level - levelPlan.getLevelCount(), levelRandom));
+        }
+
+        int start = levelPlan.getSpawnStart(level);
+        KnowledgeKeeper[] enemies = new KnowledgeKeeper[levelPlan.getSpawnEnd(level) - start];
+        for (int i = 0; i < enemies.length; i++) {
+            int spawn = start + i;
+            enemies[i] = createEnemy(levelPlan.getSpawnType(spawn), levelPlan.getSpawnX(spawn),
+                    levelPlan.getSpawnY(spawn), levelRandom.split());
+        }
+        return new PreparedLevel(enemies);
+    }
+
+    /**
+     * Builds the enemies of an endless wave without activating them.
+     *
+     * Every wave has {@code ENDLESS_ENEMIES_PER_WAVE} more enemies than the previous one, cycling through all
+     * enemy types, and their fire delay shrinks by {@code ENDLESS_FIRE_DELAY_DECAY} per wave.
+     */
+    private KnowledgeKeeper[] buildEndlessWave(int wave, RandomSource waveRandom) {
+        int count = ENDLESS_BASE_ENEMIES + (wave - 1) * ENDLESS_ENEMIES_PER_WAVE;
+        int fireDelay = (int) Math.max(ENDLESS_MIN_FIRE_DELAY, ENDLESS_BASE_FIRE_DELAY * Math.pow(ENDLESS_FIRE_DELAY_DECAY, wave - 1));
+
+        KnowledgeKeeper[] enemies = new KnowledgeKeeper[count];
+        for (int i = 0; i < count; i++) {
+            int x = 50 + (i * 97) % 1000;
+            int y = 60 + (i / 11 % 3) * 25;
+            enemies[i] = createEnemy(i % EnemyTypes.getCount(), x, y, waveRandom.split());
+            enemies[i].setFireDelay(fireDelay, fireDelay);
+        }
+        return enemies;
     }
 
     /**
-     * Increments the level if not at the maximum. Otherwise ends the game with a win.
+     * Creates an enemy of the given archetype with an avatar from its pool. The enemy neither shoots
+     * nor moves until it is activated.
+     *
+     * Archetypes differ only in their parameters from the {@link EnemyTypes} table, so every enemy is a plain
+     * {@code KnowledgeKeeper} of its type id and new archetypes only need a line in {@code enemies.txt}.
+     *
+     * @param typeId      The archetype id in the {@link EnemyTypes} table.
+     * @param x           The initial x-coordinate.
+     * @param y           The initial y-coordinate.
+     * @param enemyRandom The random stream owned by the enemy.
+     * @return The created enemy.
+     */
+    private KnowledgeKeeper createEnemy(int typeId, int x, int y, RandomSource enemyRandom) {
+        Image avatar = avatarPools[typeId].getAvatarPath();
+        return new KnowledgeKeeper(x, y, avatar, typeId, questionSampler, infoSampler, enemyRandom);
+    }
+
+    /**
+     * Increments the level if not at the maximum, or always in endless mode. Otherwise ends the game with a win.
      */
     public void levelUp() {
-        if (currentLevel < 3) {
+        if (currentLevel < levelPlan.getLevelCount() || endless) {
             currentLevel++;
             updateLevelConfig();
             Logger.logLevelTransition(currentLevel);
@@ -171,7 +422,8 @@ public class GameManager {
     }
 
     /**
-     * Checks if the player's score qualifies for a level up.
+     * Checks if the player's score qualifies for a level up. When the score gets close to it,
+     * the enemies of the next level start being built in the background.
      *
      * @param currentScore The current score of the player.
      * @return true if a level up should occur, false otherwise.
@@ -181,6 +433,7 @@ public class GameManager {
             levelUp();
             return true;
         }
+        prepareNextLevelIfClose(currentScore);
         return false;
     }
 
@@ -195,7 +448,25 @@ public class GameManager {
         } else {
             Logger.logGameOver(currentUser.getName());
         }
+        Logger.log("Questions - " + questionSampler.getStatistics());
+        Logger.log("Infos - " + infoSampler.getStatistics());
         Logger.log("------------------------------------------------------");
         gameOver = true;
+
+        if (levelPreparer != null) {
+            levelPreparer.shutdownNow();
+        }
+    }
+
+    /**
+     * The enemies of one level, built but not yet activated, in the order of their spawns.
+     */
+    private static class PreparedLevel {
+
+        private final KnowledgeKeeper[] enemies;
+
+        private PreparedLevel(KnowledgeKeeper[] enemies) {
+            this.enemies = enemies;
+        }
     }
 }
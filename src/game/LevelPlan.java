@@ -0,0 +1,275 @@
+package game;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Scanner;
+
+import data.DataFields;
+import data.EnemyTypes;
+import data.InvalidDataException;
+
+/**
+ * A compiled, read-only spawn plan for all levels, loaded from {@code levels.txt}.
+ *
+ * The data file describes levels as a list of waves (enemy type, count, formation, delay). At load time every wave
+ * is expanded into single spawns and stored in flat arrays, ordered by level and then by spawn tick. During play the
+ * game only keeps a cursor into these arrays, so deciding which enemies to spawn costs O(1) per tick no matter how
+ * many levels the file defines.
+ *
+ * The file is fully validated while loading, including that the avatar folder of every enemy type it uses exists;
+ * any problem is reported as an {@link InvalidDataException} naming the offending line.
+ */
+public class LevelPlan {
+
+    /** The file levels are loaded from */
+    public static final String FILE_PATH = "data/levels.txt";
+
+    private final int[] requiredScores;
+
+    /** Index of the first spawn of each level; the last element is the total spawn count */
+    private final int[] levelSpawnStart;
+
+    private final int[] spawnTicks;
+    private final int[] spawnTypes;
+    private final int[] spawnXs;
+    private final int[] spawnYs;
+
+    private LevelPlan(int[] requiredScores, int[] levelSpawnStart, int[] spawnTicks, int[] spawnTypes, int[] spawnXs, int[] spawnYs) {
+        this.requiredScores = requiredScores;
+        this.levelSpawnStart = levelSpawnStart;
+        this.spawnTicks = spawnTicks;
+        this.spawnTypes = spawnTypes;
+        this.spawnXs = spawnXs;
+        this.spawnYs = spawnYs;
+    }
+
+    /**
+     * Loads and compiles {@code levels.txt}. {@link EnemyTypes} must be loaded first.
+     *
+     * @return the compiled plan
+     * @throws Exception if the file cannot be found or is invalid
+     */
+    public static LevelPlan load() throws Exception {
+        return load(FILE_PATH);
+    }
+
+    /**
+     * Loads and compiles the given level file. {@link EnemyTypes} must be loaded first.
+     *
+     * The expected format is:
+     *
+     * level,requiredScore
+     * wave,delayMillis,enemyType,count,formation,startX,y,spacing
+     *
+     * Every {@code wave} line belongs to the closest {@code level} line above it. Empty lines and lines starting
+     * with {@code #} are ignored.
+     *
+     * @param filePath path of the level file
+     * @return the compiled plan
+     * @throws Exception if the file cannot be found or is invalid
+     */
+    public static LevelPlan load(String filePath) throws Exception {
+        int levelCount = 0;
+        int[] requiredScores = new int[8];
+        int[] levelSpawnStart = new int[9];
+
+        int spawnCount = 0;
+        int[] spawnTicks = new int[32];
+        int[] spawnTypes = new int[32];
+        int[] spawnXs = new int[32];
+        int[] spawnYs = new int[32];
+        boolean[] checkedTypes = new boolean[EnemyTypes.getCount()];
+
+        try (Scanner scanner = new Scanner(new File(filePath), "UTF-8")) {
+            int lineNumber = 0;
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine().trim();
+                lineNumber++;
+
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                String[] parts = line.split(",");
+                for (int i = 0; i < parts.length; i++) {
+                    parts[i] = parts[i].trim();
+                }
+
+                if (parts[0].equals("level")) {
+                    if (parts.length != 2) {
+                        throw new InvalidDataException(filePath, lineNumber, "expected level,requiredScore");
+                    }
+                    if (levelCount > 0 && levelSpawnStart[levelCount - 1] == spawnCount) {
+                        throw new InvalidDataException(filePath, lineNumber, "level " + levelCount + " has no waves");
+                    }
+                    int requiredScore = DataFields.parseInt(filePath, lineNumber, "requiredScore", parts[1], 1);
+                    if (levelCount > 0 && requiredScore <= requiredScores[levelCount - 1]) {
+                        throw new InvalidDataException(filePath, lineNumber, "requiredScore must be higher than "
+                                + requiredScores[levelCount - 1] + " of the previous level");
+                    }
+
+                    if (levelCount == requiredScores.length) {
+                        requiredScores = Arrays.copyOf(requiredScores, levelCount * 2);
+                        levelSpawnStart = Arrays.copyOf(levelSpawnStart, levelCount * 2 + 1);
+                    }
+                    requiredScores[levelCount] = requiredScore;
+                    levelSpawnStart[levelCount] = spawnCount;
+                    levelCount++;
+                }
+                else if (parts[0].equals("wave")) {
+                    if (levelCount == 0) {
+                        throw new InvalidDataException(filePath, lineNumber, "wave defined before the first level");
+                    }
+                    if (parts.length != 8) {
+                        throw new InvalidDataException(filePath, lineNumber,
+                                "expected wave,delayMillis,enemyType,count,formation,startX,y,spacing");
+                    }
+
+                    int tick = DataFields.parseInt(filePath, lineNumber, "delayMillis", parts[1], 0) / GameManager.TICK_MILLIS;
+                    int type;
+                    try {
+                        type = EnemyTypes.idOf(parts[2]);
+                    }
+                    catch (IllegalArgumentException e) {
+                        throw new InvalidDataException(filePath, lineNumber, "unknown enemy type " + parts[2]);
+                    }
+                    if (!checkedTypes[type]) {
+                        // Check the avatar folder now instead of when the first wave of the type spawns.
+                        File avatarFolder = new File(EnemyTypes.getAvatarFolder(type));
+                        if (!avatarFolder.isDirectory()) {
+                            throw new InvalidDataException(filePath, lineNumber, "avatar folder " + avatarFolder.getPath()
+                                    + " of enemy type " + parts[2] + " does not exist");
+                        }
+                        checkedTypes[type] = true;
+                    }
+                    int count = DataFields.parseInt(filePath, lineNumber, "count", parts[3], 1);
+                    String formation = parts[4];
+                    int startX = DataFields.parseInt(filePath, lineNumber, "startX", parts[5], 0);
+                    int startY = DataFields.parseInt(filePath, lineNumber, "y", parts[6], 0);
+                    int spacing = DataFields.parseInt(filePath, lineNumber, "spacing", parts[7], 0);
+
+                    if (!formation.equals("row") && !formation.equals("column") && !formation.equals("vee")) {
+                        throw new InvalidDataException(filePath, lineNumber, "unknown formation " + formation);
+                    }
+
+                    if (spawnCount + count > spawnTicks.length) {
+                        int capacity = Math.max(spawnCount + count, spawnTicks.length * 2);
+                        spawnTicks = Arrays.copyOf(spawnTicks, capacity);
+                        spawnTypes = Arrays.copyOf(spawnTypes, capacity);
+                        spawnXs = Arrays.copyOf(spawnXs, capacity);
+                        spawnYs = Arrays.copyOf(spawnYs, capacity);
+                    }
+
+                    for (int i = 0; i < count; i++) {
+                        int x = startX;
+                        int y = startY;
+                        if (formation.equals("row")) {
+                            x = startX + i * spacing;
+                        }
+                        else if (formation.equals("column")) {
+                            y = startY + i * spacing;
+                        }
+                        else {
+                            int fromEdge = Math.min(i, count - 1 - i);
+                            x = startX + i * spacing;
+                            y = startY + fromEdge * spacing / 2;
+                        }
+
+                        // Keep spawns of a level sorted by tick so the game loop can consume them with a cursor.
+                        int position = spawnCount;
+                        while (position > levelSpawnStart[levelCount - 1] && spawnTicks[position - 1] > tick) {
+                            spawnTicks[position] = spawnTicks[position - 1];
+                            spawnTypes[position] = spawnTypes[position - 1];
+                            spawnXs[position] = spawnXs[position - 1];
+                            spawnYs[position] = spawnYs[position - 1];
+                            position--;
+                        }
+                        spawnTicks[position] = tick;
+                        spawnTypes[position] = type;
+                        spawnXs[position] = x;
+                        spawnYs[position] = y;
+                        spawnCount++;
+                    }
+                }
+                else {
+                    throw new InvalidDataException(filePath, lineNumber, "unknown entry " + parts[0]);
+                }
+            }
+        }
+
+        if (levelCount == 0) {
+            throw new InvalidDataException(filePath + " does not define any level.");
+        }
+        if (levelSpawnStart[levelCount - 1] == spawnCount) {
+            throw new InvalidDataException(filePath + ": level " + levelCount + " has no waves");
+        }
+        levelSpawnStart[levelCount] = spawnCount;
+
+        return new LevelPlan(Arrays.copyOf(requiredScores, levelCount), Arrays.copyOf(levelSpawnStart, levelCount + 1),
+                Arrays.copyOf(spawnTicks, spawnCount), Arrays.copyOf(spawnTypes, spawnCount),
+                Arrays.copyOf(spawnXs, spawnCount), Arrays.copyOf(spawnYs, spawnCount));
+    }
+
+    /**
+     * @return the number of levels in the plan
+     */
+    public int getLevelCount() {
+        return requiredScores.length;
+    }
+
+    /**
+     * @param level the 1-based level number
+     * @return the score required to finish the level
+     */
+    public int getRequiredScore(int level) {
+        return requiredScores[level - 1];
+    }
+
+    /**
+     * @param level the 1-based level number
+     * @return the index of the first spawn of the level
+     */
+    public int getSpawnStart(int level) {
+        return levelSpawnStart[level - 1];
+    }
+
+    /**
+     * @param level the 1-based level number
+     * @return the index after the last spawn of the level
+     */
+    public int getSpawnEnd(int level) {
+        return levelSpawnStart[level];
+    }
+
+    /**
+     * @param spawn the spawn index
+     * @return the tick, counted from the start of the level, at which the spawn is due
+     */
+    public int getSpawnTick(int spawn) {
+        return spawnTicks[spawn];
+    }
+
+    /**
+     * @param spawn the spawn index
+     * @return the enemy type id of the spawn
+     */
+    public int getSpawnType(int spawn) {
+        return spawnTypes[spawn];
+    }
+
+    /**
+     * @param spawn the spawn index
+     * @return the initial x-coordinate of the spawn
+     */
+    public int getSpawnX(int spawn) {
+        return spawnXs[spawn];
+    }
+
+    /**
+     * @param spawn the spawn index
+     * @return the initial y-coordinate of the spawn
+     */
+    public int getSpawnY(int spawn) {
+        return spawnYs[spawn];
+    }
+}
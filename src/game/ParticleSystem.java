@@ -0,0 +1,406 @@
+package game;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import data.DirtyRegionTracker;
+import data.RandomSource;
+
+/**
+ * Short visual effects for hits and pickups: bursts of particles, rising score popups and a screen shake.
+ *
+ * Particles and popups live in preallocated primitive arrays of fixed capacity. Starting an effect only writes
+ * into free slots and allocates nothing; when the arrays are full, further particles are dropped, so the cost of
+ * a frame stays bounded however many effects fire at once. Dead entries are swap-removed during the update.
+ *
+ * All positions are in world coordinates. Particles are painted as small opaque squares that shrink as they fade
+ * out, which the software pipelines fill much faster than translucent ones. They are grouped by color, so the
+ * color only changes a few times per frame. Popups are drawn from pre-rendered digit images,
+ * which are rendered again only when the viewport scale changes.
+ *
+ * Effects use their own random stream, so they never change the random decisions of the game itself.
+ */
+public class ParticleSystem {
+
+    /** Effect kinds */
+    public static final int HIT = 0;
+    public static final int PICKUP = 1;
+
+    /** Default capacities */
+    public static final int DEFAULT_MAX_PARTICLES = 2048;
+    public static final int DEFAULT_MAX_POPUPS = 64;
+
+    private static final int PARTICLES_PER_BURST = 24;
+    private static final int PARTICLE_LIFE_MILLIS = 600;
+    private static final int POPUP_LIFE_MILLIS = 900;
+    private static final float PARTICLE_SPEED = 0.25f;
+    private static final float GRAVITY = 0.0006f;
+    private static final float POPUP_SPEED = 0.05f;
+    private static final int PARTICLE_SIZE = 4;
+
+    /** Two colors per effect kind; particles shrink through a few fade levels */
+    private static final Color[][] KIND_COLORS = {
+            { new Color(220, 40, 40), new Color(255, 150, 30) },
+            { new Color(40, 180, 70), new Color(250, 210, 40) } };
+    private static final int COLORS_PER_KIND = 2;
+    private static final int FADE_LEVELS = 4;
+    private static final int PALETTE_SIZE = KIND_COLORS.length * COLORS_PER_KIND * FADE_LEVELS;
+
+    private final RandomSource random;
+
+    /** Particles: position, velocity in units per millisecond, remaining life and palette color */
+    private final int maxParticles;
+    private final float[] particleX;
+    private final float[] particleY;
+    private final float[] particleVX;
+    private final float[] particleVY;
+    private final int[] particleLife;
+    private final int[] particleColor;
+    private int particleCount;
+
+    /** Popups: position, signed value and remaining life */
+    private final int maxPopups;
+    private final float[] popupX;
+    private final float[] popupY;
+    private final int[] popupValue;
+    private final int[] popupLife;
+    private int popupCount;
+
+    /** Screen shake: remaining and total time, strength in world units, and the offset of the current tick */
+    private int shakeLife;
+    private int shakeMillis;
+    private double shakeMagnitude;
+    private double shakeX;
+    private double shakeY;
+
+    /** Draw order of the particles grouped by palette color */
+    private final int[] order;
+    private final int[] colorStarts = new int[PALETTE_SIZE + 1];
+
+    /** Digit images at the current scale: 0 to 9, then '+' and '-', for gains [0] and losses [1] */
+    private final BufferedImage[][] glyphs = new BufferedImage[2][12];
+    private double glyphScale;
+
+    /**
+     * Constructs a particle system with the default capacities.
+     *
+     * @param random the random stream for the effects
+     */
+    public ParticleSystem(RandomSource random) {
+        this(random, DEFAULT_MAX_PARTICLES, DEFAULT_MAX_POPUPS);
+    }
+
+    /**
+     * Constructs a particle system.
+     *
+     * @param random       the random stream for the effects
+     * @param maxParticles the maximum number of live particles
+     * @param maxPopups    the maximum number of live popups
+     */
+    public ParticleSystem(RandomSource random, int maxParticles, int maxPopups) {
+        this.random = random;
+        this.maxParticles = maxParticles;
+        this.particleX = new float[maxParticles];
+        this.particleY = new float[maxParticles];
+        this.particleVX = new float[maxParticles];
+        this.particleVY = new float[maxParticles];
+        this.particleLife = new int[maxParticles];
+        this.particleColor = new int[maxParticles];
+        this.order = new int[maxParticles];
+        this.maxPopups = maxPopups;
+        this.popupX = new float[maxPopups];
+        this.popupY = new float[maxPopups];
+        this.popupValue = new int[maxPopups];
+        this.popupLife = new int[maxPopups];
+    }
+
+    /**
+     * Starts a burst of particles flying out from a point. Particles that do not fit are dropped.
+     *
+     * @param x    the world x-coordinate of the center
+     * @param y    the world y-coordinate of the center
+     * @param kind {@link #HIT} or {@link #PICKUP}
+     */
+    public void burst(int x, int y, int kind) {
+        for (int i = 0; i < PARTICLES_PER_BURST && particleCount < maxParticles; i++) {
+            double angle = random.nextDouble() * 2 * Math.PI;
+            double speed = PARTICLE_SPEED * (0.3 + 0.7 * random.nextDouble());
+            int slot = particleCount++;
+            particleX[slot] = x;
+            particleY[slot] = y;
+            particleVX[slot] = (float) (Math.cos(angle) * speed);
+            particleVY[slot] = (float) (Math.sin(angle) * speed);
+            particleLife[slot] = PARTICLE_LIFE_MILLIS / 2 + random.nextInt(PARTICLE_LIFE_MILLIS / 2);
+            particleColor[slot] = kind * COLORS_PER_KIND + random.nextInt(COLORS_PER_KIND);
+        }
+    }
+
+    /**
+     * Starts a popup showing a score change that rises from a point. Dropped if all popups are in use.
+     *
+     * @param x     the world x-coordinate of the popup's left edge
+     * @param y     the world y-coordinate of the popup's top edge
+     * @param value the change, shown with its sign
+     */
+    public void popup(int x, int y, int value) {
+        if (popupCount == maxPopups) {
+            return;
+        }
+        int slot = popupCount++;
+        popupX[slot] = x;
+        popupY[slot] = y;
+        popupValue[slot] = value;
+        popupLife[slot] = POPUP_LIFE_MILLIS;
+    }
+
+    /**
+     * Shakes the screen, or extends the current shake if it is stronger.
+     *
+     * @param millis    the duration
+     * @param magnitude the largest offset in world units
+     */
+    public void shake(int millis, double magnitude) {
+        if (shakeLife == 0 || magnitude >= shakeMagnitude * shakeLife / shakeMillis) {
+            shakeMillis = millis;
+            shakeLife = millis;
+            shakeMagnitude = magnitude;
+        }
+    }
+
+    /**
+     * Advances all effects. Called once per game loop tick.
+     *
+     * @param elapsedMillis milliseconds elapsed since the previous call
+     */
+    public void update(int elapsedMillis) {
+        int i = 0;
+        while (i < particleCount) {
+            particleLife[i] -= elapsedMillis;
+            if (particleLife[i] <= 0) {
+                removeParticle(i);
+                continue;
+            }
+            particleVY[i] += GRAVITY * elapsedMillis;
+            particleX[i] += particleVX[i] * elapsedMillis;
+            particleY[i] += particleVY[i] * elapsedMillis;
+            i++;
+        }
+
+        i = 0;
+        while (i < popupCount) {
+            popupLife[i] -= elapsedMillis;
+            if (popupLife[i] <= 0) {
+                removePopup(i);
+                continue;
+            }
+            popupY[i] -= POPUP_SPEED * elapsedMillis;
+            i++;
+        }
+
+        if (shakeLife > 0) {
+            shakeLife = Math.max(0, shakeLife - elapsedMillis);
+            double strength = shakeMagnitude * shakeLife / shakeMillis;
+            shakeX = (random.nextDouble() * 2 - 1) * strength;
+            shakeY = (random.nextDouble() * 2 - 1) * strength;
+        }
+        else {
+            shakeX = 0;
+            shakeY = 0;
+        }
+    }
+
+    /**
+     * Removes every effect, for example when a level ends.
+     */
+    public void clear() {
+        particleCount = 0;
+        popupCount = 0;
+        shakeLife = 0;
+        shakeX = 0;
+        shakeY = 0;
+    }
+
+    /**
+     * @return the number of live particles
+     */
+    public int getParticleCount() {
+        return particleCount;
+    }
+
+    /**
+     * @return the horizontal screen shake of the current tick in world units
+     */
+    public double getShakeX() {
+        return shakeX;
+    }
+
+    /**
+     * @return the vertical screen shake of the current tick in world units
+     */
+    public double getShakeY() {
+        return shakeY;
+    }
+
+    /**
+     * Adds the screen bounds of every particle and popup to a dirty region tracker.
+     *
+     * @param tracker the tracker of the current frame
+     * @param scale   the number of screen pixels per world unit
+     * @param offsetX the screen x-coordinate of the world origin
+     * @param offsetY the screen y-coordinate of the world origin
+     */
+    public void addBounds(DirtyRegionTracker tracker, double scale, int offsetX, int offsetY) {
+        int size = particleSize(scale);
+        for (int i = 0; i < particleCount; i++) {
+            tracker.add(offsetX + (int) (particleX[i] * scale), offsetY + (int) (particleY[i] * scale), size, size);
+        }
+        updateGlyphs(scale);
+        for (int i = 0; i < popupCount; i++) {
+            tracker.add(offsetX + (int) (popupX[i] * scale), offsetY + (int) (popupY[i] * scale),
+                    popupWidth(popupValue[i]), glyphs[0][0].getHeight());
+        }
+    }
+
+    /**
+     * Paints all particles and popups.
+     *
+     * @param g       the {@link Graphics} context to draw on, in screen pixels
+     * @param scale   the number of screen pixels per world unit
+     * @param offsetX the screen x-coordinate of the world origin
+     * @param offsetY the screen y-coordinate of the world origin
+     */
+    public void paint(Graphics g, double scale, int offsetX, int offsetY) {
+        // Counting sort of the particles by color and fade level.
+        Arrays.fill(colorStarts, 0);
+        for (int i = 0; i < particleCount; i++) {
+            colorStarts[paletteIndex(i) + 1]++;
+        }
+        for (int entry = 1; entry < colorStarts.length; entry++) {
+            colorStarts[entry] += colorStarts[entry - 1];
+        }
+        for (int i = 0; i < particleCount; i++) {
+            order[colorStarts[paletteIndex(i)]++] = i;
+        }
+
+        int start = 0;
+        for (int entry = 0; entry < PALETTE_SIZE; entry++) {
+            int end = colorStarts[entry];
+            if (end > start) {
+                int color = entry / FADE_LEVELS;
+                g.setColor(KIND_COLORS[color / COLORS_PER_KIND][color % COLORS_PER_KIND]);
+                int size = Math.max(1, particleSize(scale) * (entry % FADE_LEVELS + 1) / FADE_LEVELS);
+                for (int k = start; k < end; k++) {
+                    int i = order[k];
+                    g.fillRect(offsetX + (int) (particleX[i] * scale), offsetY + (int) (particleY[i] * scale), size, size);
+                }
+            }
+            start = end;
+        }
+
+        updateGlyphs(scale);
+        for (int i = 0; i < popupCount; i++) {
+            drawPopup(g, popupValue[i], offsetX + (int) (popupX[i] * scale), offsetY + (int) (popupY[i] * scale));
+        }
+    }
+
+    /**
+     * @return the palette entry of a particle: its color and its fade level by remaining life
+     */
+    private int paletteIndex(int particle) {
+        int fade = Math.min(FADE_LEVELS - 1, particleLife[particle] * FADE_LEVELS / (PARTICLE_LIFE_MILLIS / 2));
+        return particleColor[particle] * FADE_LEVELS + fade;
+    }
+
+    private static int particleSize(double scale) {
+        return Math.max(1, (int) Math.round(PARTICLE_SIZE * scale));
+    }
+
+    /**
+     * Draws the signed value of a popup from the glyph images, without creating a string.
+     */
+    private void drawPopup(Graphics g, int value, int x, int y) {
+        BufferedImage[] set = glyphs[value < 0 ? 1 : 0];
+        g.drawImage(set[value < 0 ? 11 : 10], x, y, null);
+        x += set[value < 0 ? 11 : 10].getWidth();
+
+        int number = Math.abs(value);
+        int divisor = 1;
+        while (divisor <= number / 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            BufferedImage digit = set[number / divisor % 10];
+            g.drawImage(digit, x, y, null);
+            x += digit.getWidth();
+        }
+    }
+
+    /**
+     * @return the width of a popup in screen pixels
+     */
+    private int popupWidth(int value) {
+        BufferedImage[] set = glyphs[value < 0 ? 1 : 0];
+        int width = set[value < 0 ? 11 : 10].getWidth();
+        int number = Math.abs(value);
+        do {
+            width += set[number % 10].getWidth();
+            number /= 10;
+        } while (number > 0);
+        return width;
+    }
+
+    /**
+     * Renders the popup glyphs for a scale, unless they already are at that scale.
+     */
+    private void updateGlyphs(double scale) {
+        if (scale == glyphScale) {
+            return;
+        }
+        glyphScale = scale;
+        Font font = new Font("Lucida Grande", Font.BOLD, Math.max(6, (int) Math.round(18 * scale)));
+        Color[] colors = { new Color(30, 150, 60), new Color(200, 30, 30) };
+        String characters = "0123456789+-";
+        Graphics probe = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).getGraphics();
+        FontMetrics metrics = probe.getFontMetrics(font);
+        probe.dispose();
+
+        for (int set = 0; set < glyphs.length; set++) {
+            for (int i = 0; i < characters.length(); i++) {
+                String character = characters.substring(i, i + 1);
+                BufferedImage image = new BufferedImage(Math.max(1, metrics.stringWidth(character)),
+                        Math.max(1, metrics.getHeight()), BufferedImage.TYPE_INT_ARGB);
+                Graphics2D g2 = image.createGraphics();
+                g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+                g2.setFont(font);
+                g2.setColor(colors[set]);
+                g2.drawString(character, 0, metrics.getAscent());
+                g2.dispose();
+                glyphs[set][i] = image;
+            }
+        }
+    }
+
+    private void removeParticle(int index) {
+        int last = --particleCount;
+        particleX[index] = particleX[last];
+        particleY[index] = particleY[last];
+        particleVX[index] = particleVX[last];
+        particleVY[index] = particleVY[last];
+        particleLife[index] = particleLife[last];
+        particleColor[index] = particleColor[last];
+    }
+
+    private void removePopup(int index) {
+        int last = --popupCount;
+        popupX[index] = popupX[last];
+        popupY[index] = popupY[last];
+        popupValue[index] = popupValue[last];
+        popupLife[index] = popupLife[last];
+    }
+}
@@ -0,0 +1,280 @@
+package game;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import characters.KnowledgeKeeper;
+import data.EnemyTypes;
+import data.InfoManager;
+import data.Logger;
+import data.QuestionManager;
+import data.SpriteCache;
+import user.UserManager;
+
+/**
+ * Loads all game data and images in parallel at startup.
+ *
+ * Independent resources are loaded at the same time on a small worker pool: users, questions, infos, enemy types
+ * followed by the level plan, and every image as a {@link SpriteCache} sprite at the size it is drawn. Each resource
+ * is exposed as a future, so a screen only waits for what it actually uses. {@link #getProgress()} reports how much
+ * of the scheduled work is done, for a splash screen.
+ *
+ * A failed data load completes its future exceptionally. A failed image only logs; the image is then loaded
+ * again, with the usual error handling, when it is first used.
+ */
+public class Preloader {
+
+    private final ExecutorService pool;
+    private final long startNanos = System.nanoTime();
+    private final AtomicInteger scheduled = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final List<CompletableFuture<Void>> spriteTasks = new ArrayList<>();
+
+    private CompletableFuture<UserManager> users;
+    private CompletableFuture<QuestionManager> questions;
+    private CompletableFuture<InfoManager> infos;
+    private CompletableFuture<Void> enemyTypes;
+    private CompletableFuture<LevelPlan> levelPlan;
+    private CompletableFuture<Void> sprites;
+
+    /**
+     * Constructs a preloader with one worker per processor, at least two.
+     */
+    public Preloader() {
+        final AtomicInteger threadCount = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "preloader-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Schedules every image file in a folder to be prepared as a sprite of the given size.
+     * Must be called before {@link #start()}.
+     *
+     * @param folder the folder of the images
+     * @param width  the sprite width, or 0 for the original size
+     * @param height the sprite height, or 0 for the original size
+     */
+    public void addSprites(String folder, int width, int height) {
+        for (String path : listImages(folder)) {
+            spriteTasks.add(submitSprite(path, width, height));
+        }
+    }
+
+    /**
+     * Starts loading all game data. Enemy avatars are scheduled as soon as the enemy types are known.
+     */
+    public void start() {
+        users = submit(new Callable<UserManager>() {
+            @Override
+            public UserManager call() throws Exception {
+                UserManager userManager = new UserManager();
+                userManager.loadUsers();
+                return userManager;
+            }
+        });
+
+        questions = submit(new Callable<QuestionManager>() {
+            @Override
+            public QuestionManager call() throws Exception {
+                QuestionManager questionManager = new QuestionManager();
+                questionManager.loadQuestions();
+                return questionManager;
+            }
+        });
+
+        infos = submit(new Callable<InfoManager>() {
+            @Override
+            public InfoManager call() throws Exception {
+                InfoManager infoManager = new InfoManager();
+                infoManager.loadInfos();
+                return infoManager;
+            }
+        });
+
+        enemyTypes = submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                EnemyTypes.load();
+                return null;
+            }
+        });
+
+        // The level plan refers to enemy types by name, so it can only be compiled after they are loaded.
+        levelPlan = enemyTypes.thenCompose(new Function<Void, CompletionStage<LevelPlan>>() {
+            @Override
+            public CompletionStage<LevelPlan> apply(Void ignored) {
+                return submit(new Callable<LevelPlan>() {
+                    @Override
+                    public LevelPlan call() throws Exception {
+                        return LevelPlan.load();
+                    }
+                });
+            }
+        });
+
+        final CompletableFuture<?>[] fixedSprites = spriteTasks.toArray(new CompletableFuture<?>[0]);
+        sprites = enemyTypes.thenCompose(new Function<Void, CompletionStage<Void>>() {
+            @Override
+            public CompletionStage<Void> apply(Void ignored) {
+                List<CompletableFuture<Void>> avatars = new ArrayList<>();
+                for (int typeId = 0; typeId < EnemyTypes.getCount(); typeId++) {
+                    for (String path : listImages(EnemyTypes.getAvatarFolder(typeId))) {
+                        avatars.add(submitSprite(path, KnowledgeKeeper.AVATAR_WIDTH, KnowledgeKeeper.AVATAR_HEIGHT));
+                    }
+                }
+                return CompletableFuture.allOf(CompletableFuture.allOf(fixedSprites),
+                        CompletableFuture.allOf(avatars.toArray(new CompletableFuture<?>[0])));
+            }
+        });
+    }
+
+    /**
+     * @return the user data
+     */
+    public CompletableFuture<UserManager> getUsers() {
+        return users;
+    }
+
+    /**
+     * @return the questions
+     */
+    public CompletableFuture<QuestionManager> getQuestions() {
+        return questions;
+    }
+
+    /**
+     * @return the infos
+     */
+    public CompletableFuture<InfoManager> getInfos() {
+        return infos;
+    }
+
+    /**
+     * @return the level plan; once it is done, the enemy types are loaded as well
+     */
+    public CompletableFuture<LevelPlan> getLevelPlan() {
+        return levelPlan;
+    }
+
+    /**
+     * @return completes when every image has been prepared or has failed
+     */
+    public CompletableFuture<Void> getSprites() {
+        return sprites;
+    }
+
+    /**
+     * @return {@code true} once users, questions, infos, enemy types and levels are loaded, successfully or not
+     */
+    public boolean isDataDone() {
+        return users.isDone() && questions.isDone() && infos.isDone() && levelPlan.isDone();
+    }
+
+    /**
+     * @return the share of the scheduled work that is done, between 0 and 1; more work is scheduled once
+     *         the enemy types are known
+     */
+    public double getProgress() {
+        int total = scheduled.get();
+        return total == 0 ? 0 : (double) completed.get() / total;
+    }
+
+    /**
+     * @return milliseconds since the preloader was created
+     */
+    public long getElapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * Stops the worker threads once everything is loaded.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Runs a task on the pool and counts it for the progress.
+     */
+    private <T> CompletableFuture<T> submit(final Callable<T> task) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        scheduled.incrementAndGet();
+        pool.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    future.complete(task.call());
+                }
+                catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+                finally {
+                    completed.incrementAndGet();
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Prepares one sprite on the pool. Failures are logged and do not fail the future.
+     */
+    private CompletableFuture<Void> submitSprite(final String path, final int width, final int height) {
+        return submit(new Callable<Void>() {
+            @Override
+            public Void call() {
+                try {
+                    SpriteCache.get(path, width, height);
+                }
+                catch (IOException e) {
+                    Logger.log("Image cannot preload: " + path + ": " + e.getMessage());
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * @return the paths of the JPG, JPEG and PNG files in a folder, or none if the folder does not exist
+     */
+    private static List<String> listImages(String folder) {
+        List<String> paths = new ArrayList<>();
+        Path path = Paths.get(folder);
+        if (!Files.isDirectory(path)) {
+            return paths;
+        }
+
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(path)) {
+            for (Path file : directoryStream) {
+                String fileName = file.getFileName().toString().toLowerCase();
+                if (Files.isRegularFile(file)
+                        && (fileName.endsWith(".jpg") || fileName.endsWith(".jpeg") || fileName.endsWith(".png"))) {
+                    paths.add(file.toString());
+                }
+            }
+        }
+        catch (IOException e) {
+            Logger.log("Image folder cannot be listed: " + folder + ": " + e.getMessage());
+        }
+        return paths;
+    }
+}
@@ -0,0 +1,85 @@
+package game;
+
+import java.util.Arrays;
+
+import characters.Player;
+import shotbox.ShotBox;
+import shotbox.ShotManager;
+
+/**
+ * The collision pass between the player and the live shots, run once per game loop tick.
+ *
+ * The shots are first registered in a {@link CollisionGrid}, so only the shots near the player are tested.
+ * Every hit shot is passed to a {@link HitHandler} in the order of the shot list and then removed with a
+ * swap-remove, which keeps every removal O(1).
+ *
+ * The game panel and the headless tools share this pass, so they always measure and play the same code.
+ */
+public class ShotCollisions {
+
+    /**
+     * Receives the shots that hit the player. The shot is still in the shot list while it is handled.
+     */
+    public interface HitHandler {
+
+        /**
+         * Applies the effect of one hit.
+         *
+         * @param shot The shot that hit the player.
+         */
+        void onHit(ShotBox shot);
+    }
+
+    private final CollisionGrid grid;
+    private int[] hitIndices = new int[16];
+
+    /**
+     * Constructs a collision pass for a world of the given size.
+     *
+     * @param worldWidth  Width of the world in pixels.
+     * @param worldHeight Height of the world in pixels.
+     * @param cellSize    Edge length of one grid cell in pixels.
+     */
+    public ShotCollisions(int worldWidth, int worldHeight, int cellSize) {
+        grid = new CollisionGrid(worldWidth, worldHeight, cellSize);
+    }
+
+    /**
+     * Finds the shots that hit the player, hands each of them to the handler and removes them.
+     *
+     * @param player  The player.
+     * @param shots   The live shots.
+     * @param handler Receives every hit shot before it is removed.
+     * @return The number of shots that hit the player.
+     */
+    public int collide(Player player, ShotManager shots, HitHandler handler) {
+        grid.clear();
+        for (int i = 0; i < shots.size(); i++) {
+            ShotBox shot = shots.get(i);
+            grid.insert(i, shot.getX(), shot.getY(), shot.getWidth(), shot.getHeight());
+        }
+
+        int hitCount = grid.query(player.getPlayerX(), player.getPlayerY(), player.getWidth(), player.getHeight());
+        if (hitCount == 0) {
+            return 0;
+        }
+
+        if (hitIndices.length < hitCount) {
+            hitIndices = new int[Math.max(hitCount, hitIndices.length * 2)];
+        }
+        for (int i = 0; i < hitCount; i++) {
+            hitIndices[i] = grid.getHit(i);
+        }
+        Arrays.sort(hitIndices, 0, hitCount);
+
+        for (int i = 0; i < hitCount; i++) {
+            handler.onHit(shots.get(hitIndices[i]));
+        }
+
+        // Remove from the highest index down so earlier swap-removes never move a shot that is still to be removed.
+        for (int i = hitCount - 1; i >= 0; i--) {
+            shots.remove(hitIndices[i]);
+        }
+        return hitCount;
+    }
+}
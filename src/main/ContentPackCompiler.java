@@ -0,0 +1,30 @@
+package main;
+
+import data.ContentIndex;
+import data.ContentPack;
+import data.InfoManager;
+import data.QuestionManager;
+
+/**
+ * The {@code ContentPackCompiler} class compiles content text files into binary {@link ContentPack}s offline.
+ *
+ * Run it after editing content to keep game startup fast. Without arguments it compiles the questions and
+ * infos; otherwise it compiles every given file. A pack that is not recompiled after an edit is simply ignored
+ * by the game, which then parses the text file as before.
+ *
+ * Usage:
+ * {@code java -cp <classes> main.ContentPackCompiler [contentFile ...]}
+ */
+public class ContentPackCompiler {
+
+    public static void main(String[] args) throws Exception {
+        String[] files = args.length > 0 ? args : new String[] { QuestionManager.FILE_PATH, InfoManager.FILE_PATH };
+
+        for (String file : files) {
+            long start = System.nanoTime();
+            ContentIndex index = ContentPack.compile(file);
+            System.out.printf("%s -> %s: %d entries in %d levels (%.1f ms)%n", file, ContentPack.packPathOf(file),
+                    index.getTotalEntryCount(), index.getLevelCount(), (System.nanoTime() - start) / 1e6);
+        }
+    }
+}
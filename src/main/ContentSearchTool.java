@@ -0,0 +1,70 @@
+package main;
+
+import java.util.Arrays;
+import java.util.List;
+
+import data.ContentMatch;
+import data.ContentSearch;
+import data.InfoManager;
+import data.QuestionManager;
+
+/**
+ * The {@code ContentSearchTool} class is a command line front end of {@link ContentSearch} for content editors.
+ *
+ * {@code search} prints the questions and infos that contain every given term ({@code term*} for a prefix).
+ * {@code duplicates} prints groups of near-duplicate entries, by default those sharing an estimated 80% of
+ * their word pairs.
+ *
+ * Usage:
+ * {@code java -cp <classes> main.ContentSearchTool search <term> [term ...]}
+ * {@code java -cp <classes> main.ContentSearchTool duplicates [threshold]}
+ */
+public class ContentSearchTool {
+
+    private static final int MAX_MATCHES = 100;
+    private static final double DEFAULT_THRESHOLD = 0.8;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0 || !(args[0].equals("search") || args[0].equals("duplicates"))) {
+            System.out.println("Usage: ContentSearchTool search <term> [term ...] | duplicates [threshold]");
+            return;
+        }
+
+        QuestionManager questionManager = new QuestionManager();
+        questionManager.loadQuestions();
+        InfoManager infoManager = new InfoManager();
+        infoManager.loadInfos();
+
+        ContentSearch search = new ContentSearch();
+        search.addSource("questions", questionManager.getStore());
+        search.addSource("infos", infoManager.getStore());
+
+        long start = System.nanoTime();
+        search.refresh();
+        System.out.printf("Indexed in %.1f ms.%n", (System.nanoTime() - start) / 1e6);
+
+        if (args[0].equals("search")) {
+            String query = String.join(" ", Arrays.copyOfRange(args, 1, args.length));
+            start = System.nanoTime();
+            List<ContentMatch> matches = search.search(query, MAX_MATCHES);
+            double millis = (System.nanoTime() - start) / 1e6;
+            for (ContentMatch match : matches) {
+                System.out.println(match);
+            }
+            System.out.printf("%d matches in %.2f ms.%n", matches.size(), millis);
+        }
+        else {
+            double threshold = args.length > 1 ? Double.parseDouble(args[1]) : DEFAULT_THRESHOLD;
+            start = System.nanoTime();
+            List<List<ContentMatch>> groups = search.findNearDuplicates(threshold);
+            double millis = (System.nanoTime() - start) / 1e6;
+            for (List<ContentMatch> group : groups) {
+                System.out.println("---");
+                for (ContentMatch match : group) {
+                    System.out.println(match);
+                }
+            }
+            System.out.printf("%d groups in %.1f ms.%n", groups.size(), millis);
+        }
+    }
+}
@@ -0,0 +1,577 @@
+package main;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Formatter;
+import java.util.List;
+import java.util.Locale;
+
+import characters.KnowledgeKeeper;
+import characters.Player;
+import data.EnemyAvatar;
+import data.EnemyTypes;
+import data.InfoManager;
+import data.Logger;
+import data.QuestionManager;
+import data.SplittableRandomSource;
+import data.SpriteCache;
+import game.GameManager;
+import game.ScoreManager;
+import game.ShotCollisions;
+import screens.GamePanel;
+import shotbox.ShotBox;
+import shotbox.ShotManager;
+import user.User;
+import user.UserManager;
+
+/**
+ * The {@code SmokeBenchmark} class times the hot paths of the game and writes the results in a machine-readable
+ * format, as a quick check between releases.
+ *
+ * It is a smoke benchmark, not a replacement for a JMH suite: it has no blackholes or compiler controls, and it
+ * runs few, short iterations. Its numbers are good for spotting large regressions, such as an operation that
+ * became quadratic, but not for resolving differences of a few percent.
+ *
+ * Every case runs in a JVM of its own, so the JIT profile of one case cannot slow down another. In that JVM it is
+ * run for a number of warmup iterations, whose results are discarded, and then for a number of measurement
+ * iterations. An iteration repeats the operation until {@link #ITERATION_MILLIS} have passed, and its score is the
+ * average time per operation. The reported score is the mean of the measurement iterations, with the half-width of
+ * its 99.9% confidence interval as error. Results of every operation are folded into a sink that is printed at the
+ * end, which keeps the JIT from removing most of the measured work.
+ *
+ * JSON output follows the result format of JMH ({@code -rf json}), so existing tools for JMH results can read it.
+ * Every result also has a {@code "harness"} field of {@value #HARNESS}, which JMH never writes, so these results
+ * cannot be mistaken for JMH results. CSV output has one line per case. Progress is printed to the error stream.
+ *
+ * Like {@link StressTest}, it must be run from the game folder, because content, enemy types and avatars are read
+ * from {@code data} and {@code assets}. Users are benchmarked on synthetic files in a temporary folder, and the
+ * {@link Logger} writes to a log file in that folder during the run, so the game's log is never touched.
+ *
+ * Usage:
+ * {@code java -cp <classes> main.SmokeBenchmark [json|csv] [outputFile|-] [nameFilter]}
+ */
+public class SmokeBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASUREMENT_ITERATIONS = 5;
+    private static final int ITERATION_MILLIS = 300;
+    private static final String FORK_OPTION = "--fork";
+
+    /** Value of the field that marks JSON results as coming from this harness */
+    private static final String HARNESS = "smoke";
+    private static final long SEED = 42;
+
+    /** Two-sided quantile of the normal distribution for a 99.9% confidence interval */
+    private static final double CONFIDENCE_QUANTILE = 3.291;
+
+    private static final int[] SHOT_COUNTS = { 100, 1000, 10000 };
+    private static final int[] USER_COUNTS = { 10, 100, 1000 };
+    private static final int SCORES_PER_USER = 10;
+
+    private static long sink;
+
+    /**
+     * A single benchmark: an operation with an optional parameter, and the work to prepare and clean up after it,
+     * which is not measured.
+     */
+    private abstract static class Case {
+
+        final String name;
+        final String paramName;
+        final String paramValue;
+
+        Case(String name) {
+            this(name, null, null);
+        }
+
+        Case(String name, String paramName, String paramValue) {
+            this.name = name;
+            this.paramName = paramName;
+            this.paramValue = paramValue;
+        }
+
+        void setUp() throws Exception {
+        }
+
+        /**
+         * @return a value derived from the result of the operation
+         */
+        abstract long run() throws Exception;
+
+        void tearDown() throws Exception {
+        }
+    }
+
+    /**
+     * The scores of a finished benchmark, in microseconds per operation.
+     */
+    private static class Result {
+
+        final Case benchmark;
+        final double[] scores;
+        final double mean;
+        final double error;
+
+        Result(Case benchmark, double[] scores) {
+            this.benchmark = benchmark;
+            this.scores = scores;
+
+            double sum = 0;
+            for (double score : scores) {
+                sum += score;
+            }
+            mean = sum / scores.length;
+
+            double squares = 0;
+            for (double score : scores) {
+                squares += (score - mean) * (score - mean);
+            }
+            double deviation = scores.length > 1 ? Math.sqrt(squares / (scores.length - 1)) : 0;
+            error = CONFIDENCE_QUANTILE * deviation / Math.sqrt(scores.length);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+
+        if (args.length == 3 && args[0].equals(FORK_OPTION)) {
+            runFork(Integer.parseInt(args[1]), Paths.get(args[2]));
+            return;
+        }
+
+        String format = args.length > 0 ? args[0].toLowerCase() : "json";
+        if (!format.equals("json") && !format.equals("csv")) {
+            System.err.println("Unknown format: " + args[0] + " (use json or csv)");
+            System.exit(2);
+        }
+        String output = args.length > 1 ? args[1] : "-";
+        String filter = args.length > 2 ? args[2] : "";
+
+        Path folder = Files.createTempDirectory("benchmark");
+        List<Result> results = new ArrayList<>();
+        try {
+            List<Case> cases = loadCases(folder);
+            for (int index = 0; index < cases.size(); index++) {
+                Case benchmark = cases.get(index);
+                if (benchmark.name.contains(filter)) {
+                    System.err.print(label(benchmark) + ":");
+                    Result result = new Result(benchmark, fork(index, folder));
+                    System.err.printf(Locale.ROOT, " %.3f +- %.3f us/op%n", result.mean, result.error);
+                    results.add(result);
+                }
+            }
+        }
+        finally {
+            File[] files = folder.toFile().listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            folder.toFile().delete();
+        }
+
+        if (output.equals("-")) {
+            write(System.out, format, results);
+        }
+        else {
+            try (PrintStream out = new PrintStream(new FileOutputStream(output), false, "UTF-8")) {
+                write(out, format, results);
+            }
+            System.err.println("Results written to " + output);
+        }
+    }
+
+    /**
+     * Loads the game data the cases need and creates them.
+     */
+    private static List<Case> loadCases(Path folder) throws Exception {
+        // Everything logged, by the logger case or the code under test, goes to the temporary folder.
+        Logger.setFilePath(folder.resolve("logs.txt").toString());
+        QuestionManager questionManager = new QuestionManager();
+        questionManager.loadQuestions();
+        InfoManager infoManager = new InfoManager();
+        infoManager.loadInfos();
+        EnemyTypes.load();
+        return createCases(folder, questionManager, infoManager);
+    }
+
+    /**
+     * Runs one case in a new JVM with the same class path.
+     *
+     * @return the scores of the measurement iterations
+     */
+    private static double[] fork(int index, Path folder) throws Exception {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                SmokeBenchmark.class.getName(), FORK_OPTION, String.valueOf(index), folder.toString());
+        builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+        Process process = builder.start();
+
+        String line;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), "UTF-8"))) {
+            line = reader.readLine();
+        }
+        int exitCode = process.waitFor();
+        if (exitCode != 0 || line == null) {
+            throw new IOException("Benchmark fork " + index + " failed with exit code " + exitCode);
+        }
+
+        String[] parts = line.trim().split(" ");
+        double[] scores = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            scores[i] = Double.parseDouble(parts[i]);
+        }
+        return scores;
+    }
+
+    /**
+     * Measures one case in this JVM and prints its iteration scores on one line of the output stream.
+     */
+    private static void runFork(int index, Path folder) throws Exception {
+        Case benchmark = loadCases(folder).get(index);
+        double[] scores = measure(benchmark);
+
+        StringBuilder line = new StringBuilder();
+        for (double score : scores) {
+            line.append(line.length() > 0 ? " " : "").append(format(score));
+        }
+        System.out.println(line);
+        System.out.flush();
+        System.err.print(" (sink " + sink + ")");
+    }
+
+    /**
+     * Creates every benchmark, in the order they are run.
+     */
+    private static List<Case> createCases(final Path folder, final QuestionManager questionManager,
+            final InfoManager infoManager) {
+        List<Case> cases = new ArrayList<>();
+
+        for (final int shotCount : SHOT_COUNTS) {
+            cases.add(new Case("collisions", "shots", String.valueOf(shotCount)) {
+                private final ShotCollisions collisions = new ShotCollisions(GameManager.WORLD_WIDTH, GameManager.WORLD_HEIGHT, 64);
+                private final List<ShotBox> hits = new ArrayList<>();
+                private Player player;
+                private ShotManager shots;
+                private long handled;
+
+                /** Applies a hit like the game panel, without the HUD, effects and log */
+                private final ShotCollisions.HitHandler handler = new ShotCollisions.HitHandler() {
+                    @Override
+                    public void onHit(ShotBox shot) {
+                        handled += shot.getText().length();
+                        if (shot.getType().equals("info")) {
+                            player.addScore(shot.getEnemy().getInfoScore());
+                        }
+                        else {
+                            player.takeDamage(shot.getEnemy().getQuestionDamage());
+                        }
+                        hits.add(shot);
+                    }
+                };
+
+                @Override
+                void setUp() {
+                    player = new Player(GamePanel.PLAYER_START_X, GamePanel.PLAYER_START_Y, "assets/players/player1.png");
+                    SplittableRandomSource random = new SplittableRandomSource(SEED);
+                    KnowledgeKeeper enemy = new KnowledgeKeeper(0, 0, null, 0, questionManager.newSampler(random.split()),
+                            infoManager.newSampler(random.split()), random.split());
+                    shots = new ShotManager(shotCount);
+                    for (int i = 0; i < shotCount; i++) {
+                        shots.spawn(new ShotBox(random.nextInt(GameManager.WORLD_WIDTH), random.nextInt(GameManager.WORLD_HEIGHT),
+                                5, EnemyTypes.getContentLevel(0), random.nextInt(2) == 0 ? "info" : "question", enemy));
+                    }
+                }
+
+                /**
+                 * The game panel's collision pass: broad phase, hit sort, hit handling and swap-removes. The hit
+                 * shots are spawned again afterwards, so every operation sees the same number of shots.
+                 */
+                @Override
+                long run() {
+                    int hitCount = collisions.collide(player, shots, handler);
+                    for (int i = 0; i < hits.size(); i++) {
+                        shots.spawn(hits.get(i));
+                    }
+                    hits.clear();
+                    return hitCount + handled;
+                }
+            });
+        }
+
+        for (final int userCount : USER_COUNTS) {
+            cases.add(new Case("scoreboard", "users", String.valueOf(userCount)) {
+                private List<User> users;
+
+                @Override
+                void setUp() {
+                    users = createUsers(userCount);
+                }
+
+                @Override
+                long run() {
+                    return ScoreManager.getSortedScoreboard(users).length();
+                }
+            });
+        }
+
+        cases.add(new Case("logger") {
+            private long count;
+
+            @Override
+            long run() {
+                Logger.log("Benchmark message " + count++);
+                return count;
+            }
+        });
+
+        for (final int userCount : USER_COUNTS) {
+            final String path = folder.resolve("users-" + userCount + ".txt").toString();
+
+            cases.add(new Case("loadUsers", "users", String.valueOf(userCount)) {
+                @Override
+                void setUp() throws IOException {
+                    writeUsers(path, createUsers(userCount));
+                }
+
+                @Override
+                long run() throws Exception {
+                    UserManager manager = new UserManager(path);
+                    manager.loadUsers();
+                    return manager.getAllUsers().size();
+                }
+            });
+
+            cases.add(new Case("saveUsers", "users", String.valueOf(userCount)) {
+                private UserManager manager;
+
+                @Override
+                void setUp() throws Exception {
+                    writeUsers(path, createUsers(userCount));
+                    manager = new UserManager(path);
+                    manager.loadUsers();
+                }
+
+                @Override
+                long run() {
+                    manager.saveUsers();
+                    return new File(path).length();
+                }
+            });
+        }
+
+        cases.add(new Case("loadQuestions") {
+            @Override
+            long run() throws Exception {
+                questionManager.loadQuestions();
+                return questionManager.getStore().get().getTotalEntryCount();
+            }
+        });
+
+        cases.add(new Case("loadInfos") {
+            @Override
+            long run() throws Exception {
+                infoManager.loadInfos();
+                return infoManager.getStore().get().getTotalEntryCount();
+            }
+        });
+
+        for (int typeId = 0; typeId < EnemyTypes.getCount(); typeId++) {
+            final String avatarFolder = EnemyTypes.getAvatarFolder(typeId);
+
+            cases.add(new Case("decodeAvatars", "type", EnemyTypes.getName(typeId)) {
+                private int avatarCount;
+
+                @Override
+                void setUp() {
+                    File[] files = new File(avatarFolder).listFiles();
+                    avatarCount = files != null ? files.length : 0;
+                }
+
+                /** Decodes and scales every avatar of the type, as a new game does with an empty sprite cache */
+                @Override
+                long run() throws Exception {
+                    SpriteCache.clear();
+                    EnemyAvatar avatars = new EnemyAvatar(avatarFolder, new SplittableRandomSource(SEED),
+                            KnowledgeKeeper.AVATAR_WIDTH, KnowledgeKeeper.AVATAR_HEIGHT);
+                    long decoded = 0;
+                    for (int i = 0; i < avatarCount; i++) {
+                        decoded += avatars.getAvatarPath() != null ? 1 : 0;
+                    }
+                    return decoded;
+                }
+
+                @Override
+                void tearDown() {
+                    SpriteCache.clear();
+                }
+            });
+        }
+
+        return cases;
+    }
+
+    /**
+     * Runs the warmup and measurement iterations of a benchmark.
+     *
+     * @return the scores of the measurement iterations, in microseconds per operation
+     */
+    private static double[] measure(Case benchmark) throws Exception {
+        benchmark.setUp();
+        double[] scores = new double[MEASUREMENT_ITERATIONS];
+        try {
+            for (int iteration = 0; iteration < WARMUP_ITERATIONS + MEASUREMENT_ITERATIONS; iteration++) {
+                double score = iterate(benchmark);
+                if (iteration >= WARMUP_ITERATIONS) {
+                    scores[iteration - WARMUP_ITERATIONS] = score;
+                }
+            }
+        }
+        finally {
+            benchmark.tearDown();
+        }
+        return scores;
+    }
+
+    /**
+     * Repeats the operation until the iteration time has passed.
+     *
+     * @return the average time per operation in microseconds
+     */
+    private static double iterate(Case benchmark) throws Exception {
+        long deadline = System.nanoTime() + ITERATION_MILLIS * 1_000_000L;
+        long start = System.nanoTime();
+        long operations = 0;
+        long now;
+        do {
+            sink += benchmark.run();
+            operations++;
+            now = System.nanoTime();
+        } while (now < deadline);
+        return (now - start) / 1e3 / operations;
+    }
+
+    /**
+     * Creates users with random scores; all benchmarks with the same user count get the same users.
+     */
+    private static List<User> createUsers(int count) {
+        SplittableRandomSource random = new SplittableRandomSource(SEED);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = new User("user" + i, "password" + i, "assets/players/player" + (1 + i % 3) + ".png");
+            for (int j = 0; j < SCORES_PER_USER; j++) {
+                user.addScore(random.nextInt(1000));
+            }
+            users.add(user);
+        }
+        return users;
+    }
+
+    /**
+     * Writes users in the format of the users file.
+     */
+    private static void writeUsers(String path, List<User> users) throws IOException {
+        try (Formatter formatter = new Formatter(new File(path))) {
+            for (User user : users) {
+                formatter.format("%s,%s,%s,", user.getName(), user.getPassword(), user.getAvatarPath());
+                for (int score : user.getScores()) {
+                    formatter.format("%d,", score);
+                }
+                formatter.format("%n");
+            }
+        }
+    }
+
+    private static void write(PrintStream out, String format, List<Result> results) {
+        if (format.equals("csv")) {
+            writeCsv(out, results);
+        }
+        else {
+            writeJson(out, results);
+        }
+        out.flush();
+    }
+
+    /**
+     * Writes one line per benchmark: name, parameter, score, error, unit and the iteration scores.
+     */
+    private static void writeCsv(PrintStream out, List<Result> results) {
+        out.println("benchmark,param,score,error,unit,iterations");
+        for (Result result : results) {
+            Case benchmark = result.benchmark;
+            String param = benchmark.paramName != null ? benchmark.paramName + "=" + benchmark.paramValue : "";
+            StringBuilder iterations = new StringBuilder();
+            for (double score : result.scores) {
+                iterations.append(iterations.length() > 0 ? " " : "").append(format(score));
+            }
+            out.println(benchmark.name + "," + param + "," + format(result.mean) + "," + format(result.error) + ",us/op,"
+                    + iterations);
+        }
+    }
+
+    /**
+     * Writes the results as an array in the JMH JSON result format.
+     */
+    private static void writeJson(PrintStream out, List<Result> results) {
+        out.println("[");
+        for (int i = 0; i < results.size(); i++) {
+            Result result = results.get(i);
+            Case benchmark = result.benchmark;
+            out.println("    {");
+            out.println("        \"harness\" : \"" + HARNESS + "\",");
+            out.println("        \"benchmark\" : \"" + SmokeBenchmark.class.getName() + "." + benchmark.name + "\",");
+            out.println("        \"mode\" : \"avgt\",");
+            out.println("        \"threads\" : 1,");
+            out.println("        \"forks\" : 1,");
+            out.println("        \"jvm\" : \"" + escape(System.getProperty("java.home")) + "\",");
+            out.println("        \"jdkVersion\" : \"" + escape(System.getProperty("java.version")) + "\",");
+            out.println("        \"vmName\" : \"" + escape(System.getProperty("java.vm.name")) + "\",");
+            out.println("        \"warmupIterations\" : " + WARMUP_ITERATIONS + ",");
+            out.println("        \"warmupTime\" : \"" + ITERATION_MILLIS + " ms\",");
+            out.println("        \"measurementIterations\" : " + MEASUREMENT_ITERATIONS + ",");
+            out.println("        \"measurementTime\" : \"" + ITERATION_MILLIS + " ms\",");
+            if (benchmark.paramName != null) {
+                out.println("        \"params\" : {");
+                out.println("            \"" + benchmark.paramName + "\" : \"" + escape(benchmark.paramValue) + "\"");
+                out.println("        },");
+            }
+            out.println("        \"primaryMetric\" : {");
+            out.println("            \"score\" : " + format(result.mean) + ",");
+            out.println("            \"scoreError\" : " + format(result.error) + ",");
+            out.println("            \"scoreConfidence\" : [ " + format(result.mean - result.error) + ", "
+                    + format(result.mean + result.error) + " ],");
+            out.println("            \"scoreUnit\" : \"us/op\",");
+            StringBuilder raw = new StringBuilder();
+            for (double score : result.scores) {
+                raw.append(raw.length() > 0 ? ", " : "").append(format(score));
+            }
+            out.println("            \"rawData\" : [ [ " + raw + " ] ]");
+            out.println("        },");
+            out.println("        \"secondaryMetrics\" : {}");
+            out.println(i < results.size() - 1 ? "    }," : "    }");
+        }
+        out.println("]");
+    }
+
+    private static String label(Case benchmark) {
+        return benchmark.paramName != null ? benchmark.name + " " + benchmark.paramName + "=" + benchmark.paramValue
+                : benchmark.name;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.4f", value);
+    }
+
+    private static String escape(String text) {
+        return text == null ? "" : text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
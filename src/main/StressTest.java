@@ -0,0 +1,160 @@
+package main;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+import characters.KnowledgeKeeper;
+import characters.Player;
+import data.EnemyTypes;
+import data.FrameRecorder;
+import data.InfoManager;
+import data.QuestionManager;
+import data.SpriteBatch;
+import game.GameManager;
+import game.LevelPlan;
+import game.ShotCollisions;
+import screens.GamePanel;
+import shotbox.ShotBox;
+import shotbox.ShotManager;
+import user.User;
+
+/**
+ * The {@code StressTest} class is a headless load generator built on the endless mode of {@link GameManager}.
+ *
+ * It adds one endless wave after another without ever removing enemies, runs a fixed number of game loop
+ * ticks per wave (AI decisions, movement, shooting, shot lifecycle and collision detection) and measures the time of every tick.
+ * As soon as the average tick exceeds the budget, it reports the entity count at which that happened.
+ *
+ * No window is opened and nothing is rendered, so this measures the simulation only. The player is invulnerable.
+ * Shots share the game's live-shot budget unless another one is given; shots over the budget are dropped and
+ * counted in the final report.
+ * Optionally, every tick is also drawn and recorded with a {@link FrameRecorder}, outside of the measured time,
+ * to a video ({@code .avi}) or a folder of PNG files, for example for visual regression checks of automated runs.
+ *
+ * Usage:
+ * {@code java -cp <classes> main.StressTest [budgetMillis] [ticksPerWave] [seed] [maxLiveShots] [capturePath]}
+ */
+public class StressTest {
+
+    private static final int MAX_WAVES = 10000;
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+
+        double budgetMillis = args.length > 0 ? Double.parseDouble(args[0]) : GameManager.TICK_MILLIS;
+        int ticksPerWave = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+        int maxLiveShots = args.length > 3 ? Integer.parseInt(args[3]) : ShotManager.DEFAULT_MAX_LIVE_SHOTS;
+        FrameRecorder recorder = null;
+        if (args.length > 4) {
+            int format = args[4].toLowerCase().endsWith(".avi") ? FrameRecorder.MJPEG_AVI : FrameRecorder.PNG_SEQUENCE;
+            recorder = new FrameRecorder(args[4], format, GameManager.WORLD_WIDTH, GameManager.WORLD_HEIGHT,
+                    1000 / GameManager.TICK_MILLIS, FrameRecorder.DEFAULT_POOL_SIZE);
+        }
+        SpriteBatch batch = new SpriteBatch();
+
+        QuestionManager questionManager = new QuestionManager();
+        questionManager.loadQuestions();
+        InfoManager infoManager = new InfoManager();
+        infoManager.loadInfos();
+        EnemyTypes.load();
+
+        GameManager gameManager = new GameManager(new User("stress", "", "assets/players/player1.png"), LevelPlan.load(), seed,
+                questionManager, infoManager);
+        gameManager.setEndless(true);
+
+        Player player = new Player(GamePanel.PLAYER_START_X, GamePanel.PLAYER_START_Y, "assets/players/player1.png");
+        ShotManager shots = new ShotManager(maxLiveShots);
+        ShotCollisions collisions = new ShotCollisions(GameManager.WORLD_WIDTH, GameManager.WORLD_HEIGHT, 64);
+        // The player is invulnerable, so hits are only removed.
+        ShotCollisions.HitHandler ignoreHit = new ShotCollisions.HitHandler() {
+            @Override
+            public void onHit(ShotBox shot) {
+            }
+        };
+        List<KnowledgeKeeper> enemies = new ArrayList<>();
+        long hits = 0;
+
+        System.out.println("Live-shot budget: " + maxLiveShots);
+        System.out.println("wave,enemies,shots,avgTickMillis,maxTickMillis");
+
+        for (int wave = 1; wave <= MAX_WAVES; wave++) {
+            gameManager.generateEndlessWave(wave, shots, enemies);
+
+            long totalNanos = 0;
+            long worstNanos = 0;
+            for (int tick = 0; tick < ticksPerWave; tick++) {
+                long start = System.nanoTime();
+
+                shots.update(GameManager.WORLD_HEIGHT);
+                gameManager.updateAI();
+                for (int i = 0; i < enemies.size(); i++) {
+                    KnowledgeKeeper enemy = enemies.get(i);
+                    enemy.move(player, GameManager.WORLD_WIDTH);
+                    enemy.updateShooting(GameManager.TICK_MILLIS);
+                }
+                hits += collisions.collide(player, shots, ignoreHit);
+
+                long elapsed = System.nanoTime() - start;
+                totalNanos += elapsed;
+                worstNanos = Math.max(worstNanos, elapsed);
+
+                if (recorder != null) {
+                    capture(recorder, batch, player, enemies, shots);
+                }
+            }
+
+            double averageMillis = totalNanos / 1e6 / ticksPerWave;
+            System.out.printf("%d,%d,%d,%.3f,%.3f%n", wave, enemies.size(), shots.size(), averageMillis, worstNanos / 1e6);
+
+            if (averageMillis > budgetMillis) {
+                System.out.printf("Tick budget of %.1f ms exceeded at %d enemies and %d live shots (%d hits, shots %s).%n",
+                        budgetMillis, enemies.size(), shots.size(), hits, shots.getStatistics());
+                finishCapture(recorder);
+                return;
+            }
+        }
+        System.out.println("Tick budget was never exceeded within " + MAX_WAVES + " waves.");
+        finishCapture(recorder);
+    }
+
+    /**
+     * Draws the current tick into an image of the recorder, unless the recorder drops the frame.
+     */
+    private static void capture(FrameRecorder recorder, SpriteBatch batch, Player player, List<KnowledgeKeeper> enemies,
+            ShotManager shots) {
+        BufferedImage frame = recorder.acquire();
+        if (frame == null) {
+            return;
+        }
+        batch.clear();
+        for (int i = 0; i < enemies.size(); i++) {
+            enemies.get(i).draw(batch);
+        }
+        player.draw(batch);
+        for (int i = 0; i < shots.size(); i++) {
+            shots.get(i).draw(batch);
+        }
+
+        Graphics2D g2 = frame.createGraphics();
+        g2.setColor(new Color(230, 240, 250));
+        g2.fillRect(0, 0, GameManager.WORLD_WIDTH, GameManager.WORLD_HEIGHT);
+        batch.paint(g2);
+        g2.dispose();
+        recorder.submit(frame);
+    }
+
+    /**
+     * Finishes the recording, if any, and reports its frame counts.
+     */
+    private static void finishCapture(FrameRecorder recorder) throws Exception {
+        if (recorder != null) {
+            recorder.close();
+            recorder.awaitFinished();
+            System.out.println("Recorded " + recorder.getWrittenFrames() + " frames, dropped " + recorder.getDroppedFrames() + ".");
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package screens;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+import javax.swing.UIManager;
+
+import game.GameManager;
+
+/**
+ * The {@code GameHud} class is the head-up display of the game screen: health bar, level and score in a strip at
+ * the top, and the last question and info in a strip at the bottom. It is painted by {@link GamePanel} on top of
+ * the sprites instead of being made of Swing components, so changing a value never revalidates or lays out anything.
+ *
+ * Text is rendered into images once and only rendered again when it changes. Numbers are drawn from a cache of
+ * pre-rendered digit images, so a new score costs a few image copies and no text layout at all.
+ *
+ * The layout is given in world coordinates. For another viewport scale, {@link #setScale} renders all text again
+ * at the scaled font size, so the HUD stays sharp and is still drawn without scaling.
+ *
+ * Setters only record the new values. {@link #update()} applies all values recorded since the previous call at
+ * once, so any number of hits in one tick cause one HUD change.
+ */
+public class GameHud {
+
+    /** Height of the top and bottom strips in pixels */
+    public static final int TOP_HEIGHT = 64;
+    public static final int BOTTOM_HEIGHT = 100;
+
+    /** Strips changed by {@link #update()} */
+    public static final int TOP = 1;
+    public static final int BOTTOM = 2;
+
+    private static final Font LABEL_FONT = new Font("Lucida Grande", Font.PLAIN, 18);
+    private static final Color TOP_BACKGROUND = new Color(240, 255, 240);
+    private static final Color BOTTOM_BACKGROUND = new Color(210, 210, 235);
+    private static final Color BAR_BACKGROUND = new Color(238, 238, 238);
+    private static final Color BAR_FILL = new Color(99, 130, 191);
+    private static final Color BAR_BORDER = new Color(122, 138, 153);
+    private static final int TEXT_WIDTH = 680;
+    private static final int TEXT_HEIGHT = 25;
+
+    private final Font textFont;
+
+    /** Screen pixels per world unit */
+    private double scale = 1;
+
+    /** Values shown, and values recorded for the next update */
+    private int health = 100;
+    private int score;
+    private int level;
+    private String question = "";
+    private String info = "";
+    private int pendingHealth = 100;
+    private int pendingScore;
+    private int pendingLevel;
+    private String pendingQuestion = "";
+    private String pendingInfo = "";
+
+    /** Pre-rendered text at the current scale: fixed labels, the digits 0 to 9, and the current question and info */
+    private BufferedImage healthLabel;
+    private BufferedImage levelLabel;
+    private BufferedImage scoreLabel;
+    private BufferedImage questionLabel;
+    private BufferedImage infoLabel;
+    private final BufferedImage[] digits = new BufferedImage[10];
+    private BufferedImage questionText;
+    private BufferedImage infoText;
+
+    /**
+     * Constructs the HUD and renders its fixed texts.
+     *
+     * @param level the level shown at first
+     */
+    public GameHud(int level) {
+        Font font = UIManager.getFont("TextArea.font");
+        this.textFont = font != null ? font : new Font(Font.DIALOG, Font.PLAIN, 13);
+        this.level = level;
+        this.pendingLevel = level;
+        renderAll();
+    }
+
+    /**
+     * Sets the number of screen pixels per world unit and renders all text again if it changed.
+     *
+     * @param scale the viewport scale
+     */
+    public void setScale(double scale) {
+        if (scale != this.scale) {
+            this.scale = scale;
+            renderAll();
+        }
+    }
+
+    /**
+     * Renders every text image at the current scale.
+     */
+    private void renderAll() {
+        healthLabel = renderLabel("Health: ");
+        levelLabel = renderLabel("LEVEL: ");
+        scoreLabel = renderLabel("Score:");
+        questionLabel = renderLabel("QUESTION:");
+        infoLabel = renderLabel("INFO:");
+        for (int digit = 0; digit < digits.length; digit++) {
+            digits[digit] = renderLabel(String.valueOf(digit));
+        }
+        questionText = renderText(question);
+        infoText = renderText(info);
+    }
+
+    /**
+     * @param health the health to show, between 0 and 100
+     */
+    public void setHealth(int health) {
+        pendingHealth = health;
+    }
+
+    /**
+     * @param score the score to show
+     */
+    public void setScore(int score) {
+        pendingScore = score;
+    }
+
+    /**
+     * @param level the level to show
+     */
+    public void setLevel(int level) {
+        pendingLevel = level;
+    }
+
+    /**
+     * Shows a question and clears the info.
+     *
+     * @param text the question
+     */
+    public void showQuestion(String text) {
+        pendingQuestion = text;
+        pendingInfo = "";
+    }
+
+    /**
+     * Shows an info and clears the question.
+     *
+     * @param text the info
+     */
+    public void showInfo(String text) {
+        pendingInfo = text;
+        pendingQuestion = "";
+    }
+
+    /**
+     * Applies the values recorded since the previous update. Texts are only rendered again if they changed.
+     *
+     * @return the strips that changed, a combination of {@link #TOP} and {@link #BOTTOM}, or 0 if none did
+     */
+    public int update() {
+        int changed = 0;
+        if (pendingHealth != health || pendingScore != score || pendingLevel != level) {
+            health = pendingHealth;
+            score = pendingScore;
+            level = pendingLevel;
+            changed |= TOP;
+        }
+        if (!pendingQuestion.equals(question)) {
+            question = pendingQuestion;
+            questionText = renderText(question);
+            changed |= BOTTOM;
+        }
+        if (!pendingInfo.equals(info)) {
+            info = pendingInfo;
+            infoText = renderText(info);
+            changed |= BOTTOM;
+        }
+        return changed;
+    }
+
+    /**
+     * Paints both strips over the world width, the top one at the top of the world and the bottom one at its bottom.
+     *
+     * @param g       the {@link Graphics} context to draw on, in screen pixels
+     * @param offsetX the screen x-coordinate of the world origin
+     * @param offsetY the screen y-coordinate of the world origin
+     */
+    public void paint(Graphics g, int offsetX, int offsetY) {
+        int width = px(GameManager.WORLD_WIDTH);
+        g.setColor(TOP_BACKGROUND);
+        g.fillRect(offsetX, offsetY, width, px(TOP_HEIGHT));
+        g.drawImage(healthLabel, offsetX + px(10), offsetY + labelY(20, 20, healthLabel), null);
+
+        int filled = Math.max(0, Math.min(100, health)) * (px(150) - 2) / 100;
+        g.setColor(BAR_BACKGROUND);
+        g.fillRect(offsetX + px(80), offsetY + px(15), px(150), px(30));
+        g.setColor(BAR_FILL);
+        g.fillRect(offsetX + px(80) + 1, offsetY + px(15) + 1, filled, px(30) - 2);
+        g.setColor(BAR_BORDER);
+        g.drawRect(offsetX + px(80), offsetY + px(15), px(150) - 1, px(30) - 1);
+
+        int levelY = offsetY + labelY(20, 20, levelLabel);
+        g.drawImage(levelLabel, offsetX + px(500), levelY, null);
+        drawNumber(g, level, offsetX + px(500) + levelLabel.getWidth(), levelY);
+        int scoreY = offsetY + labelY(20, 20, scoreLabel);
+        g.drawImage(scoreLabel, offsetX + px(950), scoreY, null);
+        drawNumber(g, score, offsetX + px(1050), scoreY);
+
+        int bottom = offsetY + px(GameManager.WORLD_HEIGHT - BOTTOM_HEIGHT);
+        g.setColor(BOTTOM_BACKGROUND);
+        g.fillRect(offsetX, bottom, width, px(GameManager.WORLD_HEIGHT) - px(GameManager.WORLD_HEIGHT - BOTTOM_HEIGHT));
+        g.drawImage(questionLabel, offsetX + px(25), bottom + labelY(12, 25, questionLabel), null);
+        g.drawImage(questionText, offsetX + px(183), bottom + px(12), null);
+        g.drawImage(infoLabel, offsetX + px(25), bottom + labelY(52, 25, infoLabel), null);
+        g.drawImage(infoText, offsetX + px(183), bottom + px(52), null);
+    }
+
+    /**
+     * @return a world length in screen pixels
+     */
+    private int px(int length) {
+        return (int) Math.round(length * scale);
+    }
+
+    /**
+     * Draws a non-negative number from the digit images, without creating a string.
+     */
+    private void drawNumber(Graphics g, int value, int x, int y) {
+        int number = Math.max(0, value);
+        int divisor = 1;
+        while (divisor <= number / 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            BufferedImage digit = digits[number / divisor % 10];
+            g.drawImage(digit, x, y, null);
+            x += digit.getWidth();
+        }
+    }
+
+    /**
+     * @return the screen y-offset at which a label image is centered in a line of the given world height
+     *         starting at the world y-coordinate {@code top}
+     */
+    private int labelY(int top, int lineHeight, BufferedImage label) {
+        return px(top) + (px(lineHeight) - label.getHeight()) / 2;
+    }
+
+    /**
+     * Renders a label in the label font at the current scale onto a transparent image just large enough for it.
+     */
+    private BufferedImage renderLabel(String text) {
+        Font font = LABEL_FONT.deriveFont((float) (LABEL_FONT.getSize2D() * scale));
+        FontMetrics metrics = metricsOf(font);
+        BufferedImage image = new BufferedImage(Math.max(1, metrics.stringWidth(text)), Math.max(1, metrics.getHeight()),
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = createTextGraphics(image, font);
+        g2.setColor(Color.BLACK);
+        g2.drawString(text, 0, metrics.getAscent());
+        g2.dispose();
+        return image;
+    }
+
+    /**
+     * Renders a question or info onto its white text box, shortened with an ellipsis if it does not fit.
+     */
+    private BufferedImage renderText(String text) {
+        int width = px(TEXT_WIDTH);
+        int height = px(TEXT_HEIGHT);
+        BufferedImage image = new BufferedImage(Math.max(1, width), Math.max(1, height), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = createTextGraphics(image, textFont.deriveFont((float) (textFont.getSize2D() * scale)));
+        g2.setColor(Color.WHITE);
+        g2.fillRect(0, 0, width, height);
+
+        FontMetrics metrics = g2.getFontMetrics();
+        String shown = text;
+        if (metrics.stringWidth(shown) > width) {
+            int end = shown.length();
+            while (end > 0 && metrics.stringWidth(shown.substring(0, end)) + metrics.stringWidth("...") > width) {
+                end--;
+            }
+            shown = shown.substring(0, end) + "...";
+        }
+        g2.setColor(Color.BLACK);
+        g2.drawString(shown, 0, metrics.getAscent());
+        g2.dispose();
+        return image;
+    }
+
+    private static Graphics2D createTextGraphics(BufferedImage image, Font font) {
+        Graphics2D g2 = image.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2.setFont(font);
+        return g2;
+    }
+
+    private static FontMetrics metricsOf(Font font) {
+        Graphics2D g2 = createTextGraphics(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB), font);
+        FontMetrics metrics = g2.getFontMetrics();
+        g2.dispose();
+        return metrics;
+    }
+}
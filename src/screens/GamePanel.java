@@ -3,7 +3,11 @@ package screens;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.util.ArrayList;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 import java.util.List;
 import characters.*;
 import data.*;
@@ -18,8 +22,9 @@ import user.*;
  * score display, and text areas for questions/info.
  *
  * This panel is initialized with game management and user data, and includes:
- * -Top panel with health and score indicators.
- * -Bottom panel with current question and info messages.
+ * -A {@link GameHud} with health and score indicators at the top and the current question and info at the bottom.
+ * -A world of {@link GameManager#WORLD_WIDTH} by {@link GameManager#WORLD_HEIGHT} logical units, scaled to fit the
+ *  resizable window and drawn with sprites pre-scaled for that size and the screen density.
  * -Keyboard controls to move the player.
  * -Game loop running via a Swing Timer.
  * -Dynamic level setup and transitions.
@@ -29,50 +34,102 @@ public class GamePanel extends JPanel {
 
     private static final long serialVersionUID = 1L;
 
+    /** World position the player starts at */
+    public static final int PLAYER_START_X = 500;
+    public static final int PLAYER_START_Y = 640;
+
+    /** Edge length of the tiles in which changed screen regions are tracked */
+    private static final int DIRTY_TILE_SIZE = 32;
+
+    /** Sprites are scaled in steps of this size, so resizing the window creates few sprite sets */
+    private static final double SPRITE_SCALE_STEP = 0.125;
+
+    /** System property with a file or folder to record the game to from its start; F9 toggles a recording */
+    public static final String CAPTURE_PROPERTY = "knowledgesiege.capture";
+    private static final String RECORDINGS_FOLDER = "recordings";
+
+    /** Screen shake when the player is hit: duration and largest offset in world units */
+    private static final int HIT_SHAKE_MILLIS = 250;
+    private static final double HIT_SHAKE_MAGNITUDE = 6;
+
     private GameManager gameManager;
     private MainFrame mainFrame;
     private UserManager userManager;
-    private QuestionManager qManager;
-    private InfoManager iManager;
 
     private Player player;
     private List<KnowledgeKeeper> enemies;
-    private List<ShotBox> activeShots = new ArrayList<>();
+    private ShotManager activeShots = new ShotManager(ShotManager.DEFAULT_MAX_LIVE_SHOTS);
     private Timer timer;
 
-    private JTextArea questionTXT;
-    private JTextArea infoTXT;
-    private JProgressBar healthBar;
-    private JLabel scoreValueLBL;
-    private JLabel levelLBL;
+    /** Collision pass between the player and the active shots, and what a hit does */
+    private ShotCollisions collisions = new ShotCollisions(GameManager.WORLD_WIDTH, GameManager.WORLD_HEIGHT, 64);
+    private ShotCollisions.HitHandler hitHandler = new ShotCollisions.HitHandler() {
+        @Override
+        public void onHit(ShotBox shot) {
+            handleHit(shot);
+        }
+    };
+
+    /** Collects the sprites of a frame so they are drawn grouped by atlas page */
+    private SpriteBatch spriteBatch = new SpriteBatch();
+
+    /** Finds the regions that changed since the previous frame, so only they are repainted */
+    private DirtyRegionTracker dirtyRegions = new DirtyRegionTracker(DIRTY_TILE_SIZE);
+
+    /** Health, level, score, question and info, painted over the game */
+    private GameHud hud;
+
+    /** Hit bursts, score popups and screen shake */
+    private ParticleSystem particles;
+
+    /** Records every rendered frame while a recording runs, otherwise null */
+    private FrameRecorder recorder;
+
+    /**
+     * Viewport from the world to the screen, in screen pixels: the world is scaled to fit the panel and centered.
+     * On a high-density screen, a screen pixel is smaller than a pixel of the panel's coordinates.
+     */
+    private double deviceScale = 1;
+    private double viewScale = 1;
+    private int viewOffsetX;
+    private int viewOffsetY;
+    private int screenWidth;
+    private int screenHeight;
+    private double spriteScale = 1;
+
+    /** Screen shake offset of the recorded frame, in screen pixels */
+    private int shakeX;
+    private int shakeY;
 
     /**
      * Constructs the {@code GamePanel}, initializes UI, sets up game elements, and starts the game loop.
      *
      * @param gameManager  game logic controller
-     * @param qManager     question manager for enemies
-     * @param iManager     info manager for enemies
      * @param userManager  manages users and score saving
      * @param mainFrame    reference to main application frame
      */
-    public GamePanel(GameManager gameManager, QuestionManager qManager, InfoManager iManager, UserManager userManager, MainFrame mainFrame) {
+    public GamePanel(GameManager gameManager, UserManager userManager, MainFrame mainFrame) {
         this.mainFrame = mainFrame;
         this.gameManager = gameManager;
         this.userManager = userManager;
-        this.qManager = qManager;
-        this.iManager = iManager;
 
-        setLayout(new BorderLayout());
         setBackground(new Color(230, 240, 250));
 
-        player = new Player(500, 640, gameManager.getCurrentUser().getAvatarPath());
+        player = new Player(PLAYER_START_X, PLAYER_START_Y, gameManager.getCurrentUser().getAvatarPath());
+        hud = new GameHud(gameManager.getCurrentLevel());
+        // Effects get a stream of their own, so they do not change the seeded game.
+        particles = new ParticleSystem(new SplittableRandomSource(gameManager.getSeed()).split());
 
-        setupTopPanel();
-        setupBottomPanel();
         setupKeyboard();
         setupLevel();
+        recordFrame();
         startGameLoop();
 
+        String capture = System.getProperty(CAPTURE_PROPERTY);
+        if (capture != null) {
+            startRecording(capture);
+        }
+
         setFocusable(true);
         SwingUtilities.invokeLater(new Runnable() {
             @Override
@@ -83,75 +140,6 @@ public class GamePanel extends JPanel {
 
     }
 
-    /**
-     * Creates and adds the top UI panel with health bar, current level, and score display.
-     */
-    private void setupTopPanel() {
-        JPanel topPanel = new JPanel(null);
-        topPanel.setPreferredSize(new Dimension(960, 64));
-        topPanel.setBackground(new Color(240, 255, 240));
-
-        JLabel healthLBL = new JLabel("Health: ");
-        healthLBL.setFont(new Font("Lucida Grande", Font.PLAIN, 18));
-        healthLBL.setBounds(10, 20, 80, 20);
-        topPanel.add(healthLBL);
-
-        healthBar = new JProgressBar();
-        healthBar.setValue(100);
-        healthBar.setBounds(80, 15, 150, 30);
-        topPanel.add(healthBar);
-        
-        levelLBL = new JLabel("LEVEL: " + gameManager.getCurrentLevel());
-        levelLBL.setFont(new Font("Lucida Grande", Font.PLAIN, 18));
-        levelLBL.setBounds(500, 20, 120, 20);
-        topPanel.add(levelLBL);
-
-        JLabel scoreLBL = new JLabel("Score:");
-        scoreLBL.setFont(new Font("Lucida Grande", Font.PLAIN, 18));
-        scoreLBL.setBounds(950, 20, 90, 20);
-        topPanel.add(scoreLBL);
-
-        scoreValueLBL = new JLabel("0");
-        scoreValueLBL.setFont(new Font("Lucida Grande", Font.PLAIN, 18));
-        scoreValueLBL.setBounds(1050, 20, 60, 20);
-        topPanel.add(scoreValueLBL);
-
-        add(topPanel, BorderLayout.NORTH);
-    }
-
-    /**
-     * Creates and adds the bottom UI panel with question and info display.
-     */
-    private void setupBottomPanel() {
-        JPanel bottomPanel = new JPanel(null);
-        bottomPanel.setPreferredSize(new Dimension(960, 100));
-        bottomPanel.setBackground(new Color(210, 210, 235)); 
-
-        JLabel questionLBL = new JLabel("QUESTION:");
-        questionLBL.setFont(new Font("Lucida Grande", Font.PLAIN, 18));
-        questionLBL.setBounds(25, 12, 133, 25);
-        bottomPanel.add(questionLBL);
-
-        questionTXT = new JTextArea();
-        questionTXT.setBounds(183, 12, 680, 25);
-        questionTXT.setEditable(false);
-        questionTXT.setLineWrap(true);
-        bottomPanel.add(questionTXT);
-
-        JLabel infoLBL = new JLabel("INFO:");
-        infoLBL.setFont(new Font("Lucida Grande", Font.PLAIN, 18));
-        infoLBL.setBounds(25, 52, 133, 25);
-        bottomPanel.add(infoLBL);
-
-        infoTXT = new JTextArea();
-        infoTXT.setBounds(183, 52, 680, 25);
-        infoTXT.setEditable(false);
-        infoTXT.setLineWrap(true);
-        bottomPanel.add(infoTXT);
-
-        add(bottomPanel, BorderLayout.SOUTH);
-    }
-
     /**
      * Attaches keyboard listener for left and right movement of the player.
      */
@@ -161,7 +149,14 @@ public class GamePanel extends JPanel {
                 if (e.getKeyCode() == KeyEvent.VK_LEFT) {
                     player.moveLeft();
                 } else if (e.getKeyCode() == KeyEvent.VK_RIGHT) {
-                    player.moveRight(getWidth());
+                    player.moveRight(GameManager.WORLD_WIDTH);
+                } else if (e.getKeyCode() == KeyEvent.VK_F9) {
+                    if (recorder == null) {
+                        startRecording(RECORDINGS_FOLDER + "/session-"
+                                + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".avi");
+                    } else {
+                        stopRecording();
+                    }
                 }
             }
         });
@@ -172,7 +167,9 @@ public class GamePanel extends JPanel {
      */
     private void setupLevel() {
         clearPreviousLevel();
-        enemies = gameManager.generateEnemies(qManager, iManager, activeShots);
+        enemies = gameManager.generateEnemies(activeShots);
+        particles.clear();
+        dirtyRegions.markAll();
     }
 
     /**
@@ -193,23 +190,116 @@ public class GamePanel extends JPanel {
      * Runs game logic such as movement, collisions, level check, and repainting.
      */
     private void startGameLoop() {
-        timer = new Timer(20, new ActionListener() {
+        timer = new Timer(GameManager.TICK_MILLIS, new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                for (ShotBox shotBox : activeShots) {
-                    shotBox.moveDown();
-                }
+                gameManager.spawnWaves(activeShots, enemies);
+                activeShots.update(GameManager.WORLD_HEIGHT);
+                gameManager.updateAI();
                 for (KnowledgeKeeper enemy : enemies) {
-                    enemy.move(player, getWidth());
+                    enemy.move(player, GameManager.WORLD_WIDTH);
+                    enemy.updateShooting(GameManager.TICK_MILLIS);
                 }
                 checkCollisions();
+                particles.update(GameManager.TICK_MILLIS);
                 checkGameState();
-                repaint();
+                recordFrame();
+                repaintChanged();
+                captureFrame();
             }
         });
         timer.start();
     }
 
+    /**
+     * Records the sprites of the current game state into the sprite batch and finds the regions that changed.
+     */
+    private void recordFrame() {
+        updateViewport();
+        int newShakeX = (int) Math.round(particles.getShakeX() * viewScale);
+        int newShakeY = (int) Math.round(particles.getShakeY() * viewScale);
+        if (newShakeX != shakeX || newShakeY != shakeY) {
+            // A shake moves the whole world, so nothing can be repainted partially.
+            shakeX = newShakeX;
+            shakeY = newShakeY;
+            dirtyRegions.markAll();
+        }
+        spriteBatch.setViewport(viewScale, spriteScale, viewOffsetX + shakeX, viewOffsetY + shakeY);
+
+        spriteBatch.clear();
+        for (KnowledgeKeeper enemy : enemies) {
+            enemy.draw(spriteBatch);
+        }
+        player.draw(spriteBatch);
+        for (int i = 0; i < activeShots.size(); i++) {
+            activeShots.get(i).draw(spriteBatch);
+        }
+
+        dirtyRegions.beginFrame(screenWidth, screenHeight);
+        for (int i = 0; i < spriteBatch.getCount(); i++) {
+            dirtyRegions.add(spriteBatch.getX(i), spriteBatch.getY(i), spriteBatch.getWidth(i), spriteBatch.getHeight(i));
+        }
+        particles.addBounds(dirtyRegions, viewScale, viewOffsetX + shakeX, viewOffsetY + shakeY);
+        // All hits of this tick reach the HUD as one change.
+        int hudChanges = hud.update();
+        int worldWidth = (int) Math.ceil(GameManager.WORLD_WIDTH * viewScale);
+        if ((hudChanges & GameHud.TOP) != 0) {
+            dirtyRegions.addDirty(viewOffsetX, viewOffsetY, worldWidth, (int) Math.ceil(GameHud.TOP_HEIGHT * viewScale) + 1);
+        }
+        if ((hudChanges & GameHud.BOTTOM) != 0) {
+            int top = (int) Math.floor((GameManager.WORLD_HEIGHT - GameHud.BOTTOM_HEIGHT) * viewScale);
+            dirtyRegions.addDirty(viewOffsetX, viewOffsetY + top, worldWidth, (int) Math.ceil(GameManager.WORLD_HEIGHT * viewScale) - top + 1);
+        }
+        dirtyRegions.finishFrame();
+    }
+
+    /**
+     * Fits the world into the panel. When the panel size or the screen density changed, the sprite batch,
+     * the HUD and the dirty regions are switched to the new viewport.
+     */
+    private void updateViewport() {
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        double density = configuration != null ? configuration.getDefaultTransform().getScaleX() : 1;
+        int width = (int) Math.round(getWidth() * density);
+        int height = (int) Math.round(getHeight() * density);
+        if (width == 0 || height == 0 || (density == deviceScale && width == screenWidth && height == screenHeight)) {
+            return;
+        }
+
+        deviceScale = density;
+        screenWidth = width;
+        screenHeight = height;
+        viewScale = Math.max(SPRITE_SCALE_STEP, Math.min(width / (double) GameManager.WORLD_WIDTH,
+                height / (double) GameManager.WORLD_HEIGHT));
+        viewOffsetX = (int) Math.round((width - GameManager.WORLD_WIDTH * viewScale) / 2);
+        viewOffsetY = (int) Math.round((height - GameManager.WORLD_HEIGHT * viewScale) / 2);
+
+        spriteScale = Math.max(SPRITE_SCALE_STEP, Math.round(viewScale / SPRITE_SCALE_STEP) * SPRITE_SCALE_STEP);
+        hud.setScale(viewScale);
+        dirtyRegions.markAll();
+    }
+
+    /**
+     * Repaints the regions that changed in the recorded frame, or the whole panel if most of it changed.
+     *
+     * The regions are painted right away, one by one: {@link #repaint(int, int, int, int)} would merge them
+     * into their bounding box, which for a few sprites in opposite corners is almost the whole panel.
+     */
+    private void repaintChanged() {
+        if (dirtyRegions.isFullRepaint()) {
+            repaint();
+            return;
+        }
+        // Dirty regions are in screen pixels; repaints take the panel's coordinates.
+        for (int i = 0; i < dirtyRegions.getRectangleCount(); i++) {
+            int x = (int) Math.floor(dirtyRegions.getRectangleX(i) / deviceScale);
+            int y = (int) Math.floor(dirtyRegions.getRectangleY(i) / deviceScale);
+            int right = (int) Math.ceil((dirtyRegions.getRectangleX(i) + dirtyRegions.getRectangleWidth(i)) / deviceScale);
+            int bottom = (int) Math.ceil((dirtyRegions.getRectangleY(i) + dirtyRegions.getRectangleHeight(i)) / deviceScale);
+            paintImmediately(x, y, right - x, bottom - y);
+        }
+    }
+
     /**
      * Checks for level-up or game-over conditions.
      * Displays messages and triggers level transitions or end game.
@@ -220,7 +310,7 @@ public class GamePanel extends JPanel {
                 JOptionPane.showMessageDialog(this, "Transition to Level " + 
                 gameManager.getCurrentLevel(), "Level Up!", JOptionPane.INFORMATION_MESSAGE);
                 setupLevel();
-                levelLBL.setText("LEVEL: " + gameManager.getCurrentLevel());
+                hud.setLevel(gameManager.getCurrentLevel());
             } 
             else {
                 endGame(true);
@@ -242,10 +332,12 @@ public class GamePanel extends JPanel {
         if (timer != null) {
         	timer.stop();
         }
+        stopRecording();
         for (KnowledgeKeeper enemy : enemies) {
             enemy.stopShooting();
         }
 
+        Logger.log("Shots - " + activeShots.getStatistics());
         gameManager.getCurrentUser().addScore(player.getScore());
         userManager.saveUsers();
 
@@ -256,60 +348,126 @@ public class GamePanel extends JPanel {
     }
 
     /**
-     * Paints the game panel, including player, enemies, and shot boxes.
+     * Paints the game panel, including player, enemies, and shot boxes, from the frame recorded in the sprite batch,
+     * and the HUD on top of them. Only the sprites within the clip are drawn.
+     *
+     * Everything is drawn in screen pixels: the device scale of a high-density screen is removed from the
+     * transform, because the viewport and the pre-scaled sprites already include it.
      */
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        for (KnowledgeKeeper enemy : enemies) {
-            enemy.draw(g);
+        Graphics2D g2 = (Graphics2D) g.create();
+        AffineTransform transform = g2.getTransform();
+        g2.setTransform(AffineTransform.getTranslateInstance(transform.getTranslateX(), transform.getTranslateY()));
+        paintFrame(g2);
+        g2.dispose();
+    }
+
+    /**
+     * Draws the recorded frame in screen pixels: sprites, effects and the HUD.
+     */
+    private void paintFrame(Graphics2D g2) {
+        spriteBatch.paint(g2);
+        particles.paint(g2, viewScale, viewOffsetX + shakeX, viewOffsetY + shakeY);
+        hud.paint(g2, viewOffsetX, viewOffsetY);
+    }
+
+    /**
+     * Starts recording every frame. A path ending in {@code .avi} records a Motion JPEG video, any other path a
+     * folder of PNG files. Frames have the size of the game screen at the start; without a screen, as in headless
+     * runs, they have the size of the world.
+     *
+     * @param path the video file or image folder
+     */
+    private void startRecording(String path) {
+        int width = screenWidth > 0 ? screenWidth : GameManager.WORLD_WIDTH;
+        int height = screenHeight > 0 ? screenHeight : GameManager.WORLD_HEIGHT;
+        int format = path.toLowerCase().endsWith(".avi") ? FrameRecorder.MJPEG_AVI : FrameRecorder.PNG_SEQUENCE;
+        try {
+            recorder = new FrameRecorder(path, format, width, height, 1000 / GameManager.TICK_MILLIS,
+                    FrameRecorder.DEFAULT_POOL_SIZE);
+            Logger.log("Recording started: " + path + " (" + width + "x" + height + ")");
         }
-        player.draw(g);
-        for (ShotBox shotBox : activeShots) {
-            shotBox.draw(g);
+        catch (IOException e) {
+            Logger.log("Recording cannot start: " + path + ": " + e.getMessage());
+            JOptionPane.showMessageDialog(this, "Recording cannot start: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
     /**
-     * Checks for collisions between the player and shot boxes.
-     * Applies score or damage depending on shot type.
+     * Stops the current recording, if any. The recorder finishes the file in the background and logs the result,
+     * so the game never waits for the encoder.
      */
-    private void checkCollisions() {
-        Rectangle playerBoundary = player.getBounds();
+    private void stopRecording() {
+        if (recorder == null) {
+            return;
+        }
+        recorder.close();
+        recorder = null;
+    }
 
-        for (int i = 0; i < activeShots.size(); i++) {
-            ShotBox shotBox = activeShots.get(i);
-
-            if (shotBox.getBounds().intersects(playerBoundary)) {
-                String type = shotBox.getType();
-                String text = shotBox.getText();
-
-                if (type.equals("info")) {
-                    int score = shotBox.getEnemy().getInfoScore();
-                    
-                    player.addScore(score);
-                    scoreValueLBL.setText(String.valueOf(player.getScore()));
-                    infoTXT.setText(text);
-                    questionTXT.setText("");
-                    
-                    Logger.logInfoCollected(gameManager.getCurrentUser().getName(), score);
-                    Logger.log("Score: " + player.getScore());
-                } 
-                else {
-                    int damage = shotBox.getEnemy().getQuestionDamage();
-                    
-                    player.takeDamage(damage);
-                    healthBar.setValue(player.getHealth());
-                    questionTXT.setText(text);
-                    infoTXT.setText("");
-                    
-                    Logger.logHit(gameManager.getCurrentUser().getName(), damage);
-                    Logger.log("Health: " + player.getHealth());
-                }
+    /**
+     * Draws the recorded frame into an image of the recorder, or drops it when the encoder is behind.
+     * If the window was resized since the recording started, the frame is cut off or padded.
+     */
+    private void captureFrame() {
+        if (recorder == null) {
+            return;
+        }
+        BufferedImage frame = recorder.acquire();
+        if (frame == null) {
+            return;
+        }
+        Graphics2D g2 = frame.createGraphics();
+        g2.setColor(getBackground());
+        g2.fillRect(0, 0, frame.getWidth(), frame.getHeight());
+        paintFrame(g2);
+        g2.dispose();
+        recorder.submit(frame);
+    }
 
-                activeShots.remove(i);
-                i--;
-            }
+    /**
+     * Checks for collisions between the player and shot boxes with the shared {@link ShotCollisions} pass.
+     */
+    private void checkCollisions() {
+        collisions.collide(player, activeShots, hitHandler);
+    }
+
+    /**
+     * Applies score or damage depending on the type of a shot that hit the player.
+     *
+     * @param shotBox The shot that hit the player.
+     */
+    private void handleHit(ShotBox shotBox) {
+        String type = shotBox.getType();
+        // The shot's content is only chosen now that it is shown.
+        String text = shotBox.getText();
+
+        if (type.equals("info")) {
+            int score = shotBox.getEnemy().getInfoScore();
+
+            player.addScore(score);
+            hud.setScore(player.getScore());
+            hud.showInfo(text);
+            particles.burst(shotBox.getX() + shotBox.getWidth() / 2, shotBox.getY() + shotBox.getHeight() / 2, ParticleSystem.PICKUP);
+            particles.popup(player.getPlayerX(), player.getPlayerY() - 20, score);
+
+            Logger.logInfoCollected(gameManager.getCurrentUser().getName(), score);
+            Logger.log("Score: " + player.getScore());
+        }
+        else {
+            int damage = shotBox.getEnemy().getQuestionDamage();
+
+            player.takeDamage(damage);
+            hud.setHealth(player.getHealth());
+            hud.showQuestion(text);
+            particles.burst(shotBox.getX() + shotBox.getWidth() / 2, shotBox.getY() + shotBox.getHeight() / 2, ParticleSystem.HIT);
+            particles.popup(player.getPlayerX(), player.getPlayerY() - 20, -damage);
+            particles.shake(HIT_SHAKE_MILLIS, HIT_SHAKE_MAGNITUDE);
+
+            Logger.logHit(gameManager.getCurrentUser().getName(), damage);
+            Logger.log("Health: " + player.getHealth());
         }
     }
 }
@@ -2,10 +2,21 @@ package screens;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CompletionException;
 
+import characters.Player;
 import game.GameManager;
+import game.LevelPlan;
+import game.Preloader;
 import data.QuestionManager;
 import data.InfoManager;
+import data.ContentLibrary;
+import data.ContentReloader;
+import data.Logger;
 import user.User;
 import user.UserManager;
 
@@ -17,12 +28,13 @@ import user.UserManager;
  * game view, and scoreboard.
  *
  * Responsibilities:
- * -Initialize and load user, question, and info data.
+ * -Initialize and load user, question, info, enemy type, level, and image data in parallel behind a splash screen.
  * -Manage screen transitions with CardLayout.
  * -Start a new game session with selected user.
  * -Provide current user context across panels.
  *
  * Screens managed:
+ * -{@link SplashPanel}
  * -{@link LoginPanel}
  * -{@link RegisterPanel}
  * -{@link MenuPanel}
@@ -40,20 +52,35 @@ public class MainFrame extends JFrame {
     private UserManager userManager;
     private QuestionManager questionManager;
     private InfoManager infoManager;
+    private LevelPlan levelPlan;
+    private ContentReloader contentReloader;
+    private ContentLibrary contentLibrary;
+
+    /** How often the splash is updated during startup, in milliseconds */
+    private static final int STARTUP_POLL_MILLIS = 50;
+
+    private Preloader preloader;
+    private SplashPanel splashPanel;
+    private Timer startupTimer;
+    private boolean dataReady;
 
     private User currentUser;
 
     /**
      * Constructs the main application frame for the Knowledge Siege game.
      * 
-     * This constructor initializes the core components of the application, including:
+     * The window opens right away with a {@link SplashPanel} while a {@link Preloader} loads the
+     * core components of the application in parallel, including:
      * -{@link UserManager} – handles user data loading and authentication
      * -{@link QuestionManager} – loads and manages quiz questions
      * -{@link InfoManager} – loads informative content for the game
-     * -Various panels including login, registration, menu, and scoreboard
+     * -enemy types, the level plan, and every image at the size it is drawn
      * 
-     * It also sets up the main window’s layout using {@code CardLayout} and
-     * displays the login screen as the default view.
+     * As soon as the data is loaded (images may still be loading), the application creates:
+     * -{@link ContentReloader} – reloads questions and infos when their files change
+     * -{@link ContentLibrary} – switches questions and infos between languages
+     * -Various panels including login, registration, menu, and scoreboard
+     * and displays the login screen. The time to reach it is logged.
      * 
      * If an error occurs during initialization (e.g., file read error, corrupted data),
      * a critical error message is displayed and the application exits.
@@ -63,33 +90,112 @@ public class MainFrame extends JFrame {
         setTitle("Knowledge Siege");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setSize(1100, 840);
-        setResizable(false);
+        setMinimumSize(new Dimension(550, 420));
         setLocationRelativeTo(null);
 
-        
-        try {
-        	userManager = new UserManager();
-            userManager.loadUsers();
+        cardLayout = new CardLayout();
+        mainPanel = new JPanel(cardLayout);
 
-            questionManager = new QuestionManager();
-            questionManager.loadQuestions();
+        splashPanel = new SplashPanel();
+        mainPanel.add(splashPanel, "splash");
+        cardLayout.show(mainPanel, "splash");
+        setContentPane(mainPanel);
 
-            infoManager = new InfoManager();
-            infoManager.loadInfos();
-		} 
-        catch (Exception e) {
-        	JOptionPane.showMessageDialog(this,
-        	        "An error occurred. The game cannot be started.",
-        	        "Critical Error",
-        	        JOptionPane.ERROR_MESSAGE);
-        	System.exit(1);
-		}
+        preloader = new Preloader();
+        preloader.addSprites("assets/players", Player.AVATAR_WIDTH, Player.AVATAR_HEIGHT);
+        preloader.addSprites("assets/players", RegisterPanel.AVATAR_PREVIEW_SIZE, RegisterPanel.AVATAR_PREVIEW_SIZE);
+        preloader.addSprites("assets", 0, 0);
+        preloader.start();
 
-        
-        cardLayout = new CardLayout();
-        mainPanel = new JPanel(cardLayout);
+        startupTimer = new Timer(STARTUP_POLL_MILLIS, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                checkStartup();
+            }
+        });
+        startupTimer.start();
+    }
 
-        
+    /**
+     * Polled on the Event Dispatch Thread during startup: updates the splash, creates the screens once
+     * the data is loaded, and stops polling once the images are loaded as well.
+     */
+    private void checkStartup() {
+        if (!dataReady) {
+            splashPanel.setProgress(preloader.getProgress(), loadingStatus());
+            if (!preloader.isDataDone()) {
+                return;
+            }
+
+            try {
+                userManager = preloader.getUsers().join();
+                questionManager = preloader.getQuestions().join();
+                infoManager = preloader.getInfos().join();
+                levelPlan = preloader.getLevelPlan().join();
+            }
+            catch (CompletionException e) {
+                startupTimer.stop();
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                Logger.log("Game data cannot load: " + cause.getMessage());
+                JOptionPane.showMessageDialog(this,
+                        "An error occurred. The game cannot be started.\n" + cause.getMessage(),
+                        "Critical Error",
+                        JOptionPane.ERROR_MESSAGE);
+                System.exit(1);
+            }
+
+            startContentServices();
+            createScreens();
+            dataReady = true;
+            Logger.log("Time to interactive: " + ManagementFactory.getRuntimeMXBean().getUptime()
+                    + " ms since launch, " + preloader.getElapsedMillis() + " ms of loading.");
+        }
+
+        if (preloader.getSprites().isDone()) {
+            startupTimer.stop();
+            preloader.shutdown();
+            Logger.log("All assets preloaded in " + preloader.getElapsedMillis() + " ms.");
+        }
+    }
+
+    /**
+     * @return the name of the first loading step that is still running
+     */
+    private String loadingStatus() {
+        if (!preloader.getUsers().isDone()) {
+            return "Loading users...";
+        }
+        if (!preloader.getQuestions().isDone() || !preloader.getInfos().isDone()) {
+            return "Loading questions and infos...";
+        }
+        if (!preloader.getLevelPlan().isDone()) {
+            return "Loading levels...";
+        }
+        return "Loading images...";
+    }
+
+    /**
+     * Starts the content language library and the content file watcher.
+     */
+    private void startContentServices() {
+        // Content edits are picked up while the game runs; without a watcher the game still works, just without reloads.
+        contentLibrary = new ContentLibrary(questionManager.getStore(), infoManager.getStore(), ContentLibrary.DEFAULT_CACHED_LOCALES);
+        contentReloader = new ContentReloader(questionManager.getStore(), infoManager.getStore());
+        for (String locale : ContentLibrary.findLocales()) {
+            contentReloader.addFolder(ContentLibrary.folderOf(locale));
+        }
+        try {
+            contentReloader.start();
+        }
+        catch (IOException e) {
+            Logger.log("Content files cannot be watched: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Creates the login, registration, menu, and scoreboard panels and shows the login screen.
+     */
+    private void createScreens() {
         LoginPanel loginPanel = new LoginPanel(mainPanel, cardLayout, userManager, this);
         RegisterPanel registerPanel = new RegisterPanel(mainPanel, cardLayout, userManager);
         MenuPanel menuPanel = new MenuPanel(mainPanel, cardLayout, this);
@@ -103,8 +209,7 @@ public class MainFrame extends JFrame {
 
         
         cardLayout.show(mainPanel, "login");
-
-        setContentPane(mainPanel);
+        mainPanel.remove(splashPanel);
     }
 
     /**
@@ -125,10 +230,20 @@ public class MainFrame extends JFrame {
         return this.currentUser;
     }
 
+    /**
+     * Returns the library that switches the content language.
+     *
+     * @return the content library
+     */
+    public ContentLibrary getContentLibrary() {
+        return this.contentLibrary;
+    }
+
     /**
      * Starts a new game session for the specified user.
      * 
-     * This method initializes a {@link GameManager} instance for the user, calls its
+     * This method initializes a {@link GameManager} instance for the user, seeded from the
+     * {@code knowledgesiege.seed} system property if set (to replay a logged session) or the clock otherwise, calls its
      * {@code gameStart()} method to begin the game logic, and displays the {@link GamePanel}
      * in the main application window.
      * 
@@ -138,13 +253,28 @@ public class MainFrame extends JFrame {
      * @param user the player who is starting the game
      */
     public void startGame(User user) {
+        startGame(user, false);
+    }
+
+    /**
+     * Starts a new game session for the specified user, optionally in endless mode.
+     * 
+     * In endless mode the game does not end after the last level; harder generated waves follow
+     * until the player dies.
+     *
+     * @param user    the player who is starting the game
+     * @param endless {@code true} to play in endless mode
+     */
+    public void startGame(User user, boolean endless) {
         try {
         	GameManager gameManager;
-            gameManager = new GameManager(user);
+            gameManager = new GameManager(user, levelPlan, Long.getLong("knowledgesiege.seed", System.nanoTime()),
+                    questionManager, infoManager);
+            gameManager.setEndless(endless);
             
             gameManager.gameStart();
 
-            GamePanel gamePanel = new GamePanel(gameManager, questionManager, infoManager, userManager, this);
+            GamePanel gamePanel = new GamePanel(gameManager, userManager, this);
             mainPanel.add(gamePanel, "game");
             cardLayout.show(mainPanel, "game");
 		} 
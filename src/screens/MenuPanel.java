@@ -4,14 +4,19 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.List;
+
+import data.ContentLibrary;
 
 /**
  * The {@code MenuPanel} class represents the main menu screen of the Knowledge Siege game.
  * 
  * This panel provides players with navigation options to:
  * -Start a new game
+ * -Start an endless game
  * -View the scoreboard
  * -Exit the application
+ * -Choose the content language, if more than one is installed
  * 
  * All components are manually positioned using absolute layout and styled consistently
  * using helper methods.
@@ -56,18 +61,42 @@ public class MenuPanel extends JPanel {
         startBTN.setBounds(buttonX, 180, buttonWidth, buttonHeight);
         add(startBTN);
 
+        // Endless Mode button
+        JButton endlessBTN = new JButton("Endless Mode");
+        styleButton(endlessBTN);
+        endlessBTN.setBounds(buttonX, 260, buttonWidth, buttonHeight);
+        add(endlessBTN);
+
         // Scoreboard button
         JButton scoreBoardBTN = new JButton("Scoreboard");
         styleButton(scoreBoardBTN);
-        scoreBoardBTN.setBounds(buttonX, 260, buttonWidth, buttonHeight);
+        scoreBoardBTN.setBounds(buttonX, 340, buttonWidth, buttonHeight);
         add(scoreBoardBTN);
 
         // Exit button
         JButton exitBTN = new JButton("Exit");
         styleButton(exitBTN);
-        exitBTN.setBounds(buttonX, 340, buttonWidth, buttonHeight);
+        exitBTN.setBounds(buttonX, 420, buttonWidth, buttonHeight);
         add(exitBTN);
 
+        // Content language selector, only shown when more than one language is installed
+        List<String> locales = ContentLibrary.findLocales();
+        if (locales.size() > 1) {
+            final JComboBox<String> languageCMB = new JComboBox<>(locales.toArray(new String[0]));
+            languageCMB.setSelectedItem(mainFrame.getContentLibrary().getActiveLocale());
+            languageCMB.setFont(new Font("Arial", Font.BOLD, 18));
+            languageCMB.setBounds(buttonX, 500, buttonWidth, 40);
+            add(languageCMB);
+
+            languageCMB.addActionListener(new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    // Loads in the background; the menu and any running game keep going meanwhile.
+                    mainFrame.getContentLibrary().switchLocale((String) languageCMB.getSelectedItem());
+                }
+            });
+        }
+
         // Button actions
         startBTN.addActionListener(new ActionListener() {
 			@Override
@@ -76,6 +105,13 @@ public class MenuPanel extends JPanel {
 			}
 		});
         
+        endlessBTN.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				mainFrame.startGame(mainFrame.getCurrentUser(), true);
+			}
+		});
+        
         scoreBoardBTN.addActionListener(new ActionListener() {
 			@Override
 			public void actionPerformed(ActionEvent e) {
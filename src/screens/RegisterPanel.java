@@ -4,7 +4,10 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.IOException;
 
+import data.Logger;
+import data.SpriteCache;
 import user.InvalidUserException;
 import user.UserManager;
 
@@ -29,6 +32,9 @@ public class RegisterPanel extends JPanel {
 
     private static final long serialVersionUID = 1L;
 
+    /** Width and height of the avatar previews */
+    public static final int AVATAR_PREVIEW_SIZE = 80;
+
     private JTextField usernameTxtField;
     private JPasswordField passwordTxtField;
     private JPasswordField confirmPasswordTxtField;
@@ -229,7 +235,14 @@ public class RegisterPanel extends JPanel {
      * @return configured JRadioButton
      */
     private JRadioButton createAvatarRadioButton(String imagePath, int xPosition) {
-        ImageIcon icon = new ImageIcon(new ImageIcon(imagePath).getImage().getScaledInstance(80, 80, Image.SCALE_SMOOTH));
+        ImageIcon icon;
+        try {
+            icon = new ImageIcon(SpriteCache.get(imagePath, AVATAR_PREVIEW_SIZE, AVATAR_PREVIEW_SIZE));
+        }
+        catch (IOException e) {
+            Logger.log("Avatar image cannot load: " + e.getMessage());
+            icon = new ImageIcon();
+        }
         JRadioButton radioButton = new JRadioButton(icon);
         radioButton.setBounds(xPosition, 500, 80, 80);
         radioButton.setOpaque(false);
@@ -0,0 +1,59 @@
+package screens;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * The {@code SplashPanel} class is the startup screen shown while game data and images are loading.
+ *
+ * It shows the game title, a progress bar, and the name of the current loading step.
+ * The {@link MainFrame} updates it from the Event Dispatch Thread until the login screen is ready.
+ */
+public class SplashPanel extends JPanel {
+
+    private static final long serialVersionUID = 1L;
+
+    private JProgressBar progressBar;
+    private JLabel statusLBL;
+
+    /**
+     * Constructs the splash panel with an empty progress bar.
+     */
+    public SplashPanel() {
+        setLayout(null);
+        setBackground(new Color(245, 248, 255));
+
+        // Title label
+        JLabel titleLBL = new JLabel("KNOWLEDGE SIEGE");
+        titleLBL.setFont(new Font("Arial", Font.BOLD, 36));
+        titleLBL.setForeground(new Color(33, 47, 61));
+        titleLBL.setBounds(370, 280, 400, 50);
+        add(titleLBL);
+
+        // Progress bar
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setValue(0);
+        progressBar.setStringPainted(true);
+        progressBar.setFont(new Font("Arial", Font.BOLD, 14));
+        progressBar.setBounds(350, 360, 400, 30);
+        add(progressBar);
+
+        // Status label
+        statusLBL = new JLabel("Loading...", SwingConstants.CENTER);
+        statusLBL.setFont(new Font("Arial", Font.PLAIN, 16));
+        statusLBL.setForeground(new Color(33, 47, 61));
+        statusLBL.setBounds(350, 400, 400, 30);
+        add(statusLBL);
+    }
+
+    /**
+     * Shows the loading progress.
+     *
+     * @param progress the share of the work that is done, between 0 and 1
+     * @param status   the current loading step
+     */
+    public void setProgress(double progress, String status) {
+        progressBar.setValue((int) Math.round(progress * 100));
+        statusLBL.setText(status);
+    }
+}
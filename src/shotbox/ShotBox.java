@@ -1,28 +1,35 @@
 package shotbox;
 
-import java.awt.Graphics;
 import java.awt.Image;
 import java.awt.Rectangle;
-import java.io.File;
 import java.io.IOException;
-import javax.imageio.ImageIO;
 import javax.swing.JOptionPane;
 
 import characters.KnowledgeKeeper;
 import data.Logger;
+import data.SpriteBatch;
+import data.SpriteCache;
 
 /**
  * Represents a shot (either a question or information) dropped by a {@code KnowledgeKeeper} enemy.
  * 
- * A {@code ShotBox} travels vertically downward and contains a visual icon as well as a text payload.
+ * A {@code ShotBox} travels vertically downward and contains a visual icon as well as a content handle.
  * These are used to interact with the player when a collision occurs.
+ *
+ * The handle is a content level plus an entry index within that level. The entry is only chosen, and its
+ * text only decoded, when {@link #getText()} is called on collision; most shots fall off-screen without ever
+ * being shown, so they never draw content at all.
  */
 public class ShotBox {
 
+    /** Sprite batch layer of shots: above the enemies and the player */
+    public static final int LAYER = 2;
+
     private int x;
     private int y;
     private int speed;
-    private String text;
+    private int contentLevel;
+    private int contentIndex = -1;
     private String type;
 
     private Image icon;
@@ -37,15 +44,15 @@ public class ShotBox {
      * @param x       The initial x-coordinate.
      * @param y       The initial y-coordinate.
      * @param speed   The speed at which the shot will move downwards.
-     * @param text    The text content of the shot (question or info).
+     * @param contentLevel The level of the question or info the shot carries.
      * @param type    The type of the shot ("info" or "question").
      * @param enemy   The {@code KnowledgeKeeper} that fired this shot.
      */
-    public ShotBox(int x, int y, int speed, String text, String type, KnowledgeKeeper enemy) {
+    public ShotBox(int x, int y, int speed, int contentLevel, String type, KnowledgeKeeper enemy) {
         this.x = x;
         this.y = y;
         this.speed = speed;
-        this.text = text;
+        this.contentLevel = contentLevel;
         this.type = type;
         this.enemy = enemy;
         loadIcons();
@@ -54,12 +61,34 @@ public class ShotBox {
 
 
     /**
-     * Returns the text of the shot.
+     * Returns the text of the shot, resolving its content handle through the enemy who fired it.
+     * The entry is drawn on the first call; later calls return the same entry.
      *
      * @return The string content (question or info).
      */
     public String getText() {
-        return text;
+        if (contentIndex < 0) {
+            contentIndex = enemy.drawContentIndex(type, contentLevel);
+        }
+        return enemy.getContentText(type, contentLevel, contentIndex);
+    }
+
+    /**
+     * Returns the content level of the shot.
+     *
+     * @return The level of the question or info.
+     */
+    public int getContentLevel() {
+        return contentLevel;
+    }
+
+    /**
+     * Returns the entry index of the shot within its content level.
+     *
+     * @return The index, or -1 while the shot has not been resolved.
+     */
+    public int getContentIndex() {
+        return contentIndex;
     }
 
     /**
@@ -80,6 +109,42 @@ public class ShotBox {
         return enemy;
     }
 
+    /**
+     * Returns the current x-coordinate of the shot.
+     *
+     * @return The x-coordinate.
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Returns the current y-coordinate of the shot.
+     *
+     * @return The y-coordinate.
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Returns the width of the shot icon, used for allocation-free collision checks.
+     *
+     * @return The width in pixels.
+     */
+    public int getWidth() {
+        return icon.getWidth(null);
+    }
+
+    /**
+     * Returns the height of the shot icon, used for allocation-free collision checks.
+     *
+     * @return The height in pixels.
+     */
+    public int getHeight() {
+        return icon.getHeight(null);
+    }
+
     /**
      * Returns the bounding box for collision detection.
      *
@@ -101,10 +166,10 @@ public class ShotBox {
     /**
      * Renders the shot icon on the screen at its current location.
      *
-     * @param g The {@link Graphics} context used for drawing.
+     * @param batch The {@link SpriteBatch} of the frame.
      */
-    public void draw(Graphics g) {
-        g.drawImage(icon, x, y, null);
+    public void draw(SpriteBatch batch) {
+        batch.draw(icon, x, y, LAYER);
     }
 
 
@@ -114,8 +179,8 @@ public class ShotBox {
     private static void loadIcons() {
         if (infoIcon == null || questionIcon == null) {
             try {
-                infoIcon = ImageIO.read(new File("assets/info.png"));
-                questionIcon = ImageIO.read(new File("assets/question.png"));
+                infoIcon = SpriteCache.get("assets/info.png");
+                questionIcon = SpriteCache.get("assets/question.png");
             } 
             catch (IOException e) {
             	Logger.log("ShotBox image cannot load: " + e.getMessage());
@@ -0,0 +1,151 @@
+package shotbox;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Owns every live {@link ShotBox} of a game and manages their lifecycle.
+ *
+ * Responsibilities:
+ * -Moving all shots each tick and despawning the ones that have left the playfield.
+ * -Enforcing a maximum number of live shots so the cost of a tick stays bounded over arbitrarily long sessions.
+ * -Keeping live, peak, despawned and dropped counters for diagnostics.
+ *
+ * Overflow policy: when the budget is reached, newly fired shots are dropped and counted as dropped. Shots that
+ * are already on screen are never removed early, so the player never sees a shot vanish mid-flight.
+ *
+ * Removal is done with a swap-remove, so the order of the shots is not preserved.
+ */
+public class ShotManager {
+
+    /** Default maximum number of shots that may be alive at the same time */
+    public static final int DEFAULT_MAX_LIVE_SHOTS = 512;
+
+    private final List<ShotBox> shots = new ArrayList<>();
+    private final int maxLiveShots;
+
+    private int peakCount;
+    private long despawnedCount;
+    private long droppedCount;
+
+    /**
+     * Constructs a manager with the given live-shot budget.
+     *
+     * @param maxLiveShots Maximum number of shots alive at the same time, must be positive.
+     */
+    public ShotManager(int maxLiveShots) {
+        if (maxLiveShots <= 0) {
+            throw new IllegalArgumentException("Shot budget must be positive: " + maxLiveShots);
+        }
+        this.maxLiveShots = maxLiveShots;
+    }
+
+    /**
+     * Adds a newly fired shot, unless the live-shot budget is exhausted.
+     *
+     * @param shot The shot to add.
+     * @return {@code true} if the shot was added, {@code false} if it was dropped.
+     */
+    public boolean spawn(ShotBox shot) {
+        if (shots.size() >= maxLiveShots) {
+            droppedCount++;
+            return false;
+        }
+        shots.add(shot);
+        if (shots.size() > peakCount) {
+            peakCount = shots.size();
+        }
+        return true;
+    }
+
+    /**
+     * Moves every shot down and despawns the shots that are completely below the playfield.
+     *
+     * @param playfieldHeight Height of the playfield in pixels.
+     */
+    public void update(int playfieldHeight) {
+        for (int i = 0; i < shots.size(); i++) {
+            ShotBox shot = shots.get(i);
+            shot.moveDown();
+
+            if (shot.getY() > playfieldHeight) {
+                remove(i);
+                despawnedCount++;
+                i--;
+            }
+        }
+    }
+
+    /**
+     * Removes the shot at the given index in constant time by moving the last shot into its slot.
+     *
+     * @param index Index of the shot to remove.
+     */
+    public void remove(int index) {
+        int last = shots.size() - 1;
+        shots.set(index, shots.get(last));
+        shots.remove(last);
+    }
+
+    /**
+     * Returns the shot at the given index.
+     *
+     * @param index Index between 0 and {@link #size()}.
+     * @return The shot.
+     */
+    public ShotBox get(int index) {
+        return shots.get(index);
+    }
+
+    /**
+     * @return The number of live shots.
+     */
+    public int size() {
+        return shots.size();
+    }
+
+    /**
+     * Removes every live shot, for example on a level change. Counters are kept.
+     */
+    public void clear() {
+        shots.clear();
+    }
+
+    /**
+     * @return The maximum number of shots alive at the same time.
+     */
+    public int getMaxLiveShots() {
+        return maxLiveShots;
+    }
+
+    /**
+     * @return The highest number of shots that were alive at the same time.
+     */
+    public int getPeakCount() {
+        return peakCount;
+    }
+
+    /**
+     * @return The number of shots removed because they left the playfield.
+     */
+    public long getDespawnedCount() {
+        return despawnedCount;
+    }
+
+    /**
+     * @return The number of shots dropped because the live-shot budget was exhausted.
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * Returns a short summary of the counters, used for logging.
+     *
+     * @return A string in the format: "live: A, peak: B, despawned: C, dropped: D"
+     */
+    public String getStatistics() {
+        return "live: " + shots.size() + ", peak: " + peakCount + ", despawned: " + despawnedCount
+                + ", dropped: " + droppedCount;
+    }
+}
@@ -15,12 +15,26 @@ import data.Logger;
  */
 public class UserManager {
 
+    /** The file users are loaded from and saved to */
+    public static final String FILE_PATH = "data/user.txt";
+
+    private final String filePath;
     private Map<String, User> users;
 
     /**
-     * Constructs a new UserManager with an empty user list.
+     * Constructs a new UserManager with an empty user list, stored in the default file.
      */
     public UserManager() {
+        this(FILE_PATH);
+    }
+
+    /**
+     * Constructs a new UserManager with an empty user list, stored in the given file.
+     *
+     * @param filePath the path of the users file
+     */
+    public UserManager(String filePath) {
+        this.filePath = filePath;
         users = new HashMap<>();
     }
 
@@ -36,10 +50,10 @@ public class UserManager {
 
 
     /**
-     * Saves all registered users and their data (including scores and avatar paths) to the "user.txt" file.
+     * Saves all registered users and their data (including scores and avatar paths) to the users file.
      */
     public void saveUsers() {
-        try (Formatter formatter = new Formatter(new File("data/user.txt"))) {
+        try (Formatter formatter = new Formatter(new File(filePath))) {
             for (User user : users.values()) {
                 formatter.format("%s,%s,%s,", user.getName(), 
                 		user.getPassword(), user.getAvatarPath());
@@ -56,48 +70,49 @@ public class UserManager {
     }
 
     /**
-     * Loads users and their associated data from the "user.txt" file.
+     * Loads users and their associated data from the users file.
      * Creates User objects and populates the internal map.
      * 
      * @throws Exception if the file cannot be created
      */
     public void loadUsers() throws Exception {
-    	File file = new File("data/user.txt");
+    	File file = new File(filePath);
 
         if (!file.exists()) {
             try {
                 boolean created = file.createNewFile();
                 if (created) {
-                    Logger.log("user.txt was not found, a new file was created.");
+                    Logger.log(filePath + " was not found, a new file was created.");
                     return;
                 }
             } catch (IOException e) {
-                Logger.log("Error creating user.txt: " + e.getMessage());
+                Logger.log("Error creating " + filePath + ": " + e.getMessage());
                 throw e;
             }
         }
     	
-    	Scanner scanner = new Scanner(file);
-    	while (scanner.hasNextLine()) {
-            String line = scanner.nextLine();
-            String[] parts = line.split(",");
-
-            String username = parts[0];
-            String password = parts[1];
-            String avatarPath = parts[2];
-
-            User user = new User(username, password, avatarPath);
-
-            for (int i = 3; i < parts.length; i++) {
-                try {
-                    user.addScore(Integer.parseInt(parts[i]));
-                } 
-                catch (NumberFormatException ignored) {
-                	Logger.log("Invalid score for user " + username + ": " + parts[i]);
+    	try (Scanner scanner = new Scanner(file)) {
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine();
+                String[] parts = line.split(",");
+
+                String username = parts[0];
+                String password = parts[1];
+                String avatarPath = parts[2];
+
+                User user = new User(username, password, avatarPath);
+
+                for (int i = 3; i < parts.length; i++) {
+                    try {
+                        user.addScore(Integer.parseInt(parts[i]));
+                    } 
+                    catch (NumberFormatException ignored) {
+                    	Logger.log("Invalid score for user " + username + ": " + parts[i]);
+                    }
                 }
-            }
 
-            users.put(username, user);
+                users.put(username, user);
+            }
         }
     }
 